@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared setup for the benchmarks: a crucible with all jars of the cabinet enabled, and pre-built items so that
+ * item creation does not show up in the measurements.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static Xorcery newXorcery(String... overrides) throws Exception {
+        ConfigurationBuilder builder = new ConfigurationBuilder()
+                .addDefaults()
+                .addResource("benchmarks.yaml");
+        for (String override : overrides) {
+            builder.addResource(override);
+        }
+        return new Xorcery(builder.build());
+    }
+
+    public static List<MetadataJsonNode<JsonNode>> newItems(int count) {
+        List<MetadataJsonNode<JsonNode>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ObjectNode data = JsonNodeFactory.instance.objectNode()
+                    .put("id", i)
+                    .put("name", "item" + i)
+                    .put("value", i * 0.5D);
+            items.add(new MetadataJsonNode<>(new Metadata.Builder()
+                    .add(StandardMetadata.streamPosition, (long) i)
+                    .build(), data));
+        }
+        return items;
+    }
+
+    public static TransmutationConfiguration newTransmutationConfiguration(ObjectNode transmutationJson) {
+        return new TransmutationConfiguration(new Configuration(transmutationJson));
+    }
+
+    public static JarConfiguration newJarConfiguration(ObjectNode jarJson) {
+        return new JarConfiguration(new Configuration(jarJson));
+    }
+
+    /**
+     * Source transmutation without a hand-over to another scheduler, so only the source jar is measured.
+     */
+    public static ObjectNode newSourceTransmutation(String name, ObjectNode sourceJson) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", name);
+        transmutationJson.set("source", sourceJson);
+        transmutationJson.putObject("scheduler").put("kind", "immediate");
+        return transmutationJson;
+    }
+
+    public static Path newFixture(String suffix) throws IOException {
+        Path fixture = Files.createTempFile("alchemy-benchmark", suffix);
+        fixture.toFile().deleteOnExit();
+        return fixture;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import dev.xorcery.alchemy.crucible.Crucible;
+import dev.xorcery.alchemy.jar.Transmutation;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bookkeeping cost of {@link Crucible#addTransmutation(Transmutation)} when many short transmutations
+ * run at the same time, which is where the list of running transmutations is contended.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrucibleBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int concurrent;
+
+    private Xorcery xorcery;
+    private Crucible crucible;
+    private TransmutationConfiguration transmutationConfiguration;
+    private List<MetadataJsonNode<JsonNode>> items;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        crucible = xorcery.getServiceLocator().getService(Crucible.class);
+        transmutationConfiguration = new TransmutationConfiguration(new Configuration(JsonNodeFactory.instance.objectNode().put("name", "crucible")));
+        items = Benchmarks.newItems(16);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+    }
+
+    @Benchmark
+    public void addTransmutations() {
+        CompletableFuture<?>[] results = new CompletableFuture[concurrent];
+        for (int i = 0; i < concurrent; i++) {
+            Flux<MetadataJsonNode<JsonNode>> flux = Flux.fromIterable(items).publishOn(Schedulers.parallel());
+            results[i] = crucible.addTransmutation(new Transmutation(transmutationConfiguration, flux));
+        }
+        CompletableFuture.allOf(results).join();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Items per second of the batched file writers, the csv, json, yaml and parquet transmute jars, including closing
+ * the file when the flux completes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(FileWriteBenchmark.ITEMS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileWriteBenchmark {
+
+    static final int ITEMS = 100_000;
+
+    @Param({"csv", "json", "yaml", "parquet"})
+    public String jar;
+
+    @Param({"1", "256"})
+    public int batchSize;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private List<JarConfiguration> transmutes;
+    private List<MetadataJsonNode<JsonNode>> items;
+    private Path result;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        transmutationConfiguration = Benchmarks.newTransmutationConfiguration(JsonNodeFactory.instance.objectNode().put("name", jar + "write"));
+        result = Benchmarks.newFixture("." + jar);
+        transmutes = List.of(Benchmarks.newJarConfiguration(JsonNodeFactory.instance.objectNode()
+                .put("jar", jar)
+                .put("resultUrl", result.toUri().toString())
+                .set("batch", JsonNodeFactory.instance.objectNode().put("size", batchSize))));
+        items = Benchmarks.newItems(ITEMS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+        Files.deleteIfExists(result);
+    }
+
+    @Benchmark
+    public MetadataJsonNode<JsonNode> write() {
+        return transmutations.applyTransmutes(Flux.fromIterable(items), transmutes, transmutationConfiguration)
+                .blockLast();
+    }
+}
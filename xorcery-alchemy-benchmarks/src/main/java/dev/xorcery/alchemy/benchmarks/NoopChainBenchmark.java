@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item overhead of a chain of noop transmutes, i.e. the cost of the crucible plumbing itself.
+ * Fused and unfused chains are compared, and the source is an in-memory list so no jar IO is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(NoopChainBenchmark.ITEMS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoopChainBenchmark {
+
+    static final int ITEMS = 10_000;
+
+    @Param({"1", "4", "16"})
+    public int stages;
+
+    @Param({"true", "false"})
+    public boolean fusion;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private List<JarConfiguration> transmutes;
+    private List<MetadataJsonNode<JsonNode>> items;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = fusion
+                ? Benchmarks.newXorcery()
+                : Benchmarks.newXorcery("benchmarks-nofusion.yaml");
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        transmutationConfiguration = new TransmutationConfiguration(new Configuration(JsonNodeFactory.instance.objectNode().put("name", "noopchain")));
+        transmutes = new ArrayList<>(stages);
+        for (int i = 0; i < stages; i++) {
+            ObjectNode transmuteJson = JsonNodeFactory.instance.objectNode().put("jar", "noop");
+            transmutes.add(new JarConfiguration(new Configuration(transmuteJson)));
+        }
+        items = Benchmarks.newItems(ITEMS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+    }
+
+    @Benchmark
+    public MetadataJsonNode<JsonNode> noopChain() {
+        return transmutations.applyTransmutes(Flux.fromIterable(items), transmutes, transmutationConfiguration)
+                .blockLast();
+    }
+}
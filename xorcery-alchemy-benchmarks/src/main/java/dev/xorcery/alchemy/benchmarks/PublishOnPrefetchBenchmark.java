@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.SchedulerConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the hand-over between source and transmutes for each scheduler kind and prefetch size,
+ * see {@link SchedulerConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(PublishOnPrefetchBenchmark.ITEMS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublishOnPrefetchBenchmark {
+
+    static final int ITEMS = 10_000;
+
+    @Param({"immediate", "parallel", "boundedElastic", "virtual"})
+    public String kind;
+
+    @Param({"32", "256", "512", "2048"})
+    public int prefetch;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private SchedulerConfiguration schedulerConfiguration;
+    private List<MetadataJsonNode<JsonNode>> items;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        ObjectNode schedulerJson = JsonNodeFactory.instance.objectNode()
+                .put("kind", kind)
+                .put("prefetch", prefetch);
+        schedulerConfiguration = new SchedulerConfiguration(new Configuration(schedulerJson));
+        items = Benchmarks.newItems(ITEMS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+    }
+
+    @Benchmark
+    public MetadataJsonNode<JsonNode> publishOn() {
+        return transmutations.applyScheduler(Flux.fromIterable(items), schedulerConfiguration)
+                .blockLast();
+    }
+}
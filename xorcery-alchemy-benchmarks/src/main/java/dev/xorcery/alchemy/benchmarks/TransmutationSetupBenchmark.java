@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.Transmutation;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.core.Xorcery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a transmutation configuration into a ready to subscribe flux, with and without the plan cache.
+ * Nothing is subscribed, so this only measures recipe merging, jar lookup and flux assembly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransmutationSetupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean planCache;
+
+    @Param({"1", "8"})
+    public int transmutes;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = planCache
+                ? Benchmarks.newXorcery()
+                : Benchmarks.newXorcery("benchmarks-noplancache.yaml");
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "setup");
+        transmutationJson.putObject("source")
+                .put("jar", "yaml")
+                .put("sourceUrl", "resource://benchmarks.yaml");
+        ArrayNode transmutesJson = transmutationJson.putArray("transmutes");
+        for (int i = 0; i < transmutes; i++) {
+            transmutesJson.addObject().put("jar", "noop");
+        }
+        transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+    }
+
+    @Benchmark
+    public Transmutation newTransmutation() {
+        return transmutations.newTransmutation(transmutationConfiguration);
+    }
+}
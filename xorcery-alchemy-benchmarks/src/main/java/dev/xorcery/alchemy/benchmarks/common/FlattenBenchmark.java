@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.alchemy.common.transmute.FlattenTransmute;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link FlattenTransmute} on nested documents, where each level holds a list of child objects.
+ * The number of rows produced per document is {@code width^depth}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlattenBenchmark {
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    @Param({"2", "8"})
+    public int width;
+
+    private FlattenTransmute flattenTransmute;
+    private MetadataJsonNode<JsonNode> item;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        flattenTransmute = new FlattenTransmute(
+                Benchmarks.newJarConfiguration(JsonNodeFactory.instance.objectNode().put("jar", "flatten")),
+                Benchmarks.newTransmutationConfiguration(JsonNodeFactory.instance.objectNode().put("name", "flatten")));
+        item = new MetadataJsonNode<>(new Metadata.Builder().build(), newDocument(depth, "root"));
+    }
+
+    @Benchmark
+    public void flatten(Blackhole blackhole) {
+        for (MetadataJsonNode<JsonNode> row : flattenTransmute.apply(item)) {
+            blackhole.consume(row);
+        }
+    }
+
+    private ObjectNode newDocument(int level, String label) {
+        ObjectNode document = JsonNodeFactory.instance.objectNode()
+                .put("label", label)
+                .put("total", level * 1000.5D);
+        document.putObject("company").put("country", "Country " + label);
+        if (level > 0) {
+            ArrayNode children = document.putArray("children");
+            for (int i = 0; i < width; i++) {
+                children.add(newDocument(level - 1, label + "." + i));
+            }
+        }
+        return document;
+    }
+}
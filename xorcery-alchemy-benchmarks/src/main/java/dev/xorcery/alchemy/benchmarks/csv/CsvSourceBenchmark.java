@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.csv;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.core.Xorcery;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse rate of the csv source jar, with and without a header row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CsvSourceBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvSourceBenchmark {
+
+    static final int ROWS = 100_000;
+
+    @Param({"true", "false"})
+    public boolean headers;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private Path fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        fixture = Benchmarks.newFixture(".csv");
+        writeFixture(fixture, headers);
+
+        ObjectNode sourceJson = JsonNodeFactory.instance.objectNode()
+                .put("jar", "csv")
+                .put("headers", headers)
+                .put("sourceUrl", fixture.toUri().toString());
+        transmutationConfiguration = Benchmarks.newTransmutationConfiguration(Benchmarks.newSourceTransmutation("csv", sourceJson));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+        Files.deleteIfExists(fixture);
+    }
+
+    @Benchmark
+    public Long parse() {
+        return transmutations.newTransmutation(transmutationConfiguration).getFlux().count().block();
+    }
+
+    static void writeFixture(Path fixture, boolean headers) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(fixture, StandardCharsets.UTF_8)) {
+            if (headers) {
+                writer.write("id,name,email,amount,created\n");
+            }
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + ",\"Name " + i + "\",user" + i + "@example.com," + (i * 1.25D) + ",2025-01-01T00:00:00Z\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.domainevents;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item cost of the graphqldomainevents transmute jar, turning items into domain events for the entity type
+ * in benchmarks.graphql.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(DomainEventsBenchmark.ITEMS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainEventsBenchmark {
+
+    static final int ITEMS = 10_000;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private List<JarConfiguration> transmutes;
+    private List<MetadataJsonNode<JsonNode>> items;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery("benchmarks-domainevents.yaml");
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        transmutationConfiguration = Benchmarks.newTransmutationConfiguration(JsonNodeFactory.instance.objectNode().put("name", "domainevents"));
+        transmutes = List.of(Benchmarks.newJarConfiguration(JsonNodeFactory.instance.objectNode()
+                .put("jar", "graphqldomainevents")));
+        items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            ObjectNode data = JsonNodeFactory.instance.objectNode()
+                    .put("id", "item" + i)
+                    .put("name", "Name " + i)
+                    .put("value", i * 0.5D);
+            data.putObject("address").put("street", "Street " + i).put("zip", 1000 + i % 9000);
+            Metadata metadata = new Metadata.Builder()
+                    .add(StandardMetadata.streamPosition, (long) i)
+                    .build();
+            metadata.json().put("entity", "Item");
+            items.add(new MetadataJsonNode<>(metadata, data));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+    }
+
+    @Benchmark
+    public MetadataJsonNode<JsonNode> domainEvents() {
+        return transmutations.applyTransmutes(Flux.fromIterable(items), transmutes, transmutationConfiguration)
+                .blockLast();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.json;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.core.Xorcery;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Items per second of the json source jar on a file with one top-level array, for each parser backend.
+ * jackson streams the array with the JsonPublisher, and simdjson splits it into elements with a structural scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(JsonArrayBenchmark.DOCUMENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class JsonArrayBenchmark {
+
+    static final int DOCUMENTS = 100_000;
+
+    @Param({"jackson", "simdjson"})
+    public String parser;
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private Path fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        fixture = Benchmarks.newFixture(".json");
+        try (BufferedWriter writer = Files.newBufferedWriter(fixture, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < DOCUMENTS; i++) {
+                if (i > 0)
+                    writer.write(",\n");
+                writer.write("{\"id\":" + i + ",\"name\":\"Name " + i + "\",\"amount\":" + (i * 1.25D) + ",\"tags\":[\"a\",\"b\"],\"address\":{\"street\":\"Street " + i + "\",\"zip\":" + (1000 + i % 9000) + "}}");
+            }
+            writer.write("\n]\n");
+        }
+
+        ObjectNode sourceJson = JsonNodeFactory.instance.objectNode()
+                .put("jar", "json")
+                .put("parser", parser)
+                .put("sourceUrl", fixture.toUri().toString());
+        transmutationConfiguration = Benchmarks.newTransmutationConfiguration(Benchmarks.newSourceTransmutation("jsonarray", sourceJson));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+        Files.deleteIfExists(fixture);
+    }
+
+    @Benchmark
+    public Long parse() {
+        return transmutations.newTransmutation(transmutationConfiguration).getFlux().count().block();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.reactivestreams.extras.publishers.JsonPublisher;
+import dev.xorcery.reactivestreams.extras.publishers.ResourcePublisherContext;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Items per second of the {@link JsonPublisher} used by the json source jar, on a file with one document per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(JsonPublisherBenchmark.DOCUMENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPublisherBenchmark {
+
+    static final int DOCUMENTS = 100_000;
+
+    private Path fixture;
+    private String fixtureUrl;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture = Benchmarks.newFixture(".json");
+        try (BufferedWriter writer = Files.newBufferedWriter(fixture, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < DOCUMENTS; i++) {
+                writer.write("{\"id\":" + i + ",\"name\":\"Name " + i + "\",\"amount\":" + (i * 1.25D) + ",\"tags\":[\"a\",\"b\"],\"address\":{\"street\":\"Street " + i + "\",\"zip\":" + (1000 + i % 9000) + "}}\n");
+            }
+        }
+        fixtureUrl = fixture.toUri().toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(fixture);
+    }
+
+    @Benchmark
+    public Long publish() {
+        return Flux.from(new JsonPublisher<JsonNode>(JsonNode.class))
+                .contextWrite(context -> context.put(ResourcePublisherContext.resourceUrl, fixtureUrl))
+                .count()
+                .block();
+    }
+}
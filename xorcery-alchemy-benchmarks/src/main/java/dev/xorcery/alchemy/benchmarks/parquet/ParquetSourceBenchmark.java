@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.benchmarks.parquet;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jerolba.carpet.CarpetWriter;
+import dev.xorcery.alchemy.benchmarks.Benchmarks;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.core.Xorcery;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of the parquet source jar, which assembles rows directly as ObjectNodes from the column readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ParquetSourceBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParquetSourceBenchmark {
+
+    static final int ROWS = 100_000;
+
+    public record Row(long id, String name, String email, double amount, boolean active) {
+    }
+
+    private Xorcery xorcery;
+    private Transmutations transmutations;
+    private TransmutationConfiguration transmutationConfiguration;
+    private Path fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        xorcery = Benchmarks.newXorcery();
+        transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+        fixture = Benchmarks.newFixture(".parquet");
+        try (OutputStream out = Files.newOutputStream(fixture);
+             CarpetWriter<Row> writer = new CarpetWriter<>(out, Row.class)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(new Row(i, "Name " + i, "user" + i + "@example.com", i * 1.25D, i % 2 == 0));
+            }
+        }
+
+        ObjectNode sourceJson = JsonNodeFactory.instance.objectNode()
+                .put("jar", "parquet")
+                .put("sourceUrl", fixture.toUri().toString());
+        transmutationConfiguration = Benchmarks.newTransmutationConfiguration(Benchmarks.newSourceTransmutation("parquet", sourceJson));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        xorcery.close();
+        Files.deleteIfExists(fixture);
+    }
+
+    @Benchmark
+    public Long read() {
+        return transmutations.newTransmutation(transmutationConfiguration).getFlux().count().block();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.common.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the value of one field of a generated item. Values are a pure function of the item hash,
+ * so the same seed and position always give the same item, regardless of where generation started.
+ * <p>
+ * A field is declared either as a type name, or as an object with a "type" and type specific settings:
+ * <ul>
+ *     <li>sequence: the streamPosition of the item</li>
+ *     <li>integer: min, max, cardinality</li>
+ *     <li>number: min, max, cardinality</li>
+ *     <li>boolean</li>
+ *     <li>string: length, cardinality</li>
+ *     <li>object: fields</li>
+ *     <li>array: items, size</li>
+ * </ul>
+ * Cardinality limits the number of distinct values of a field, which is useful for grouping and partitioning.
+ */
+interface FieldGenerator {
+
+    // Distinct string values up to this cardinality are created once and shared between items
+    int SHARED_STRINGS = 65536;
+
+    char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz012345".toCharArray();
+
+    JsonNode generate(long position, long hash);
+
+    static FieldGenerator of(JsonNode field) {
+        JsonNode settings = field.isTextual() ? JsonNodeFactory.instance.objectNode().put("type", field.textValue()) : field;
+        String type = settings.path("type").asText(settings.has("fields") ? "object" : "string");
+        long cardinality = settings.path("cardinality").asLong(0);
+        return switch (type) {
+            case "sequence" -> (position, hash) -> LongNode.valueOf(position);
+            case "integer" -> {
+                long min = settings.path("min").asLong(0);
+                long range = settings.path("max").asLong(Integer.MAX_VALUE) - min + 1;
+                if (range <= 0)
+                    throw new IllegalArgumentException("Invalid integer range for field:" + field);
+                yield (position, hash) -> LongNode.valueOf(min + Math.floorMod(bucket(hash, cardinality), range));
+            }
+            case "number" -> {
+                double min = settings.path("min").asDouble(0);
+                double range = settings.path("max").asDouble(1) - min;
+                yield (position, hash) -> DoubleNode.valueOf(min + unit(bucket(hash, cardinality)) * range);
+            }
+            case "boolean" -> (position, hash) -> BooleanNode.valueOf((hash & 1) == 0);
+            case "string" -> {
+                int length = settings.path("length").asInt(16);
+                if (cardinality > 0 && cardinality <= SHARED_STRINGS) {
+                    TextNode[] values = new TextNode[(int) cardinality];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = TextNode.valueOf(string(mix(i), length));
+                    }
+                    yield (position, hash) -> values[(int) Math.floorMod(hash, cardinality)];
+                }
+                yield (position, hash) -> TextNode.valueOf(string(bucket(hash, cardinality), length));
+            }
+            case "object" -> {
+                List<String> names = new ArrayList<>();
+                List<FieldGenerator> generators = new ArrayList<>();
+                List<Long> salts = new ArrayList<>();
+                for (Map.Entry<String, JsonNode> property : settings.path("fields").properties()) {
+                    names.add(property.getKey());
+                    generators.add(of(property.getValue()));
+                    salts.add(mix(property.getKey().hashCode()));
+                }
+                yield new ObjectGenerator(names.toArray(new String[0]), generators.toArray(new FieldGenerator[0]), salts.stream().mapToLong(Long::longValue).toArray());
+            }
+            case "array" -> {
+                FieldGenerator items = of(settings.path("items").isMissingNode() ? TextNode.valueOf("string") : settings.path("items"));
+                int size = settings.path("size").asInt(4);
+                yield (position, hash) -> {
+                    ArrayNode array = JsonNodeFactory.instance.arrayNode(size);
+                    for (int i = 0; i < size; i++) {
+                        array.add(items.generate(position, mix(hash + i)));
+                    }
+                    return array;
+                };
+            }
+            default -> throw new IllegalArgumentException("Unknown field type:" + type);
+        };
+    }
+
+    record ObjectGenerator(String[] names, FieldGenerator[] generators, long[] salts)
+            implements FieldGenerator {
+        @Override
+        public ObjectNode generate(long position, long hash) {
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < names.length; i++) {
+                object.set(names[i], generators[i].generate(position, mix(hash ^ salts[i])));
+            }
+            return object;
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer, see {@link java.util.SplittableRandom}.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long bucket(long hash, long cardinality) {
+        return cardinality > 0 ? mix(Math.floorMod(hash, cardinality)) : hash;
+    }
+
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    private static String string(long hash, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            if (i % 12 == 0 && i > 0)
+                hash = mix(hash);
+            chars[i] = ALPHABET[(int) ((hash >>> ((i % 12) * 5)) & 31)];
+        }
+        return new String(chars);
+    }
+}
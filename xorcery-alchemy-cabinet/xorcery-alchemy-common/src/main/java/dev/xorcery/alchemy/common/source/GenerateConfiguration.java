@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.common.source;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+
+public record GenerateConfiguration(JarConfiguration configuration) {
+
+    /**
+     * @return number of items to generate, or -1 for an unbounded source
+     */
+    public long getCount() {
+        return configuration.getLong("count").orElse(1000L);
+    }
+
+    /**
+     * @return target items per second, or -1 to generate as fast as downstream requests
+     */
+    public long getRate() {
+        return configuration.getLong("rate").orElse(-1L);
+    }
+
+    public long getSeed() {
+        return configuration.getLong("seed").orElse(0L);
+    }
+
+    public ObjectNode getFields() {
+        return configuration.configuration().getJson("fields")
+                .filter(fields -> fields.isObject() && !fields.isEmpty())
+                .map(ObjectNode.class::cast)
+                .orElseGet(() -> JsonNodeFactory.instance.objectNode().put("id", "sequence"));
+    }
+}
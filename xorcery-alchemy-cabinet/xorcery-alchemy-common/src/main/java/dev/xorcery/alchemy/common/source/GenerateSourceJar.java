@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.common.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Generates synthetic items from a declared field schema, for load testing recipes without input files.
+ * Items are deterministic per seed and streamPosition, so a resumed transmutation continues with the same items.
+ */
+@Service(name = "generate", metadata = "enabled=jars.enabled")
+public class GenerateSourceJar
+        implements SourceJar {
+
+    // Rate limited sources emit a batch of items per tick, ticking at most this often. Batches are at most the size of
+    // the downstream prefetch, so higher rates tick more often instead of buffering larger batches
+    private static final long MIN_TICK_NANOS = Duration.ofMillis(10).toNanos();
+    private static final int MAX_BATCH_SIZE = Queues.SMALL_BUFFER_SIZE;
+
+    @Override
+    public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        try {
+            GenerateConfiguration generateConfiguration = new GenerateConfiguration(jarConfiguration);
+            FieldGenerator generator = FieldGenerator.of(JsonNodeFactory.instance.objectNode()
+                    .put("type", "object")
+                    .set("fields", generateConfiguration.getFields()));
+            long seed = generateConfiguration.getSeed();
+            long count = generateConfiguration.getCount();
+            long rate = generateConfiguration.getRate();
+
+            return Flux.deferContextual(context ->
+            {
+                long start = context.<Object>getOrEmpty(JarContext.streamPosition.name())
+                        .map(position -> Long.parseLong(position.toString()) + 1)
+                        .orElse(0L);
+                long end = count < 0 ? Long.MAX_VALUE : count;
+                Flux<MetadataJsonNode<JsonNode>> items = Flux.generate(
+                        () -> new Position(start),
+                        (position, sink) -> generate(position, end, seed, generator, sink));
+                return rate > 0 ? limitRate(items, rate) : items;
+            });
+        } catch (Throwable e) {
+            return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Invalid generate configuration", e));
+        }
+    }
+
+    private Position generate(Position position, long end, long seed, FieldGenerator generator, SynchronousSink<MetadataJsonNode<JsonNode>> sink) {
+        long current = position.value++;
+        if (current >= end) {
+            sink.complete();
+            return position;
+        }
+        long hash = FieldGenerator.mix(seed + current * 0x9e3779b97f4a7c15L);
+        ObjectNode data = (ObjectNode) generator.generate(current, hash);
+        sink.next(new MetadataJsonNode<>(new Metadata.Builder()
+                .add(StandardMetadata.streamPosition, current)
+                .build(), data));
+        return position;
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> limitRate(Flux<MetadataJsonNode<JsonNode>> items, long rate) {
+        long nanosPerItem = Math.max(1, 1_000_000_000L / rate);
+        int batchSize = (int) Math.max(1, Math.min(MAX_BATCH_SIZE, MIN_TICK_NANOS / nanosPerItem));
+        // Ticks are dropped when downstream is slower than the target rate, so the rate is an upper bound
+        return Flux.interval(Duration.ofNanos(nanosPerItem * batchSize))
+                .onBackpressureDrop()
+                .zipWith(items.buffer(batchSize), (tick, batch) -> batch, 1)
+                .flatMapIterable(Function.identity());
+    }
+
+    private static class Position {
+        long value;
+
+        Position(long value) {
+            this.value = value;
+        }
+    }
+}
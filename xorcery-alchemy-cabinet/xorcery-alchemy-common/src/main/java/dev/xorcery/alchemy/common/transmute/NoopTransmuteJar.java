@@ -15,16 +15,19 @@
  */
 package dev.xorcery.alchemy.common.transmute;
 
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.ItemTransmuteJar;
 import dev.xorcery.alchemy.jar.JarConfiguration;
 import dev.xorcery.alchemy.jar.TransmutationConfiguration;
 import dev.xorcery.alchemy.jar.Transmute;
-import dev.xorcery.alchemy.jar.TransmuteJar;
 import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 
+import java.util.Optional;
+
 @Service(name = "noop", metadata = "enabled=jars.enabled")
 public class NoopTransmuteJar
-        implements TransmuteJar {
+        implements ItemTransmuteJar {
 
     @Inject
     public NoopTransmuteJar() {
@@ -35,4 +38,9 @@ public class NoopTransmuteJar
 
         return (flux, context) -> flux;
     }
+
+    @Override
+    public Optional<ItemTransmute> newItemTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return Optional.of((item, sink) -> sink.next(item));
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.common.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.alchemy.jar.Transmute;
+import dev.xorcery.alchemy.jar.TransmuteJar;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import jakarta.inject.Inject;
+import org.jvnet.hk2.annotations.Service;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import static dev.xorcery.configuration.Configuration.missing;
+
+/**
+ * Runs the nested transmutes on several rails in parallel and merges the results.
+ * <p>
+ * Each rail gets its own instance of the nested transmutes, which run on the bounded elastic scheduler as they may
+ * block. When unordered, results are emitted as they become ready. When ordered, items are numbered before being split
+ * onto the rails, and the results of the rails, which are in order within each rail, are merged back into source order
+ * by that number. The number is kept next to the item, so nested transmutes do not see it, and a result gets the number
+ * of the item it is, or shares metadata with. Other results, because a nested transmute replaced both the item and its
+ * metadata, keep the number of the previous result on the same rail.
+ */
+@Service(name = "parallel", metadata = "enabled=jars.enabled")
+public class ParallelTransmuteJar
+        implements TransmuteJar {
+    private final Transmutations transmutations;
+
+    @Inject
+    public ParallelTransmuteJar(Transmutations transmutations) {
+        this.transmutations = transmutations;
+    }
+
+    @Override
+    public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        List<JarConfiguration> transmutes = jarConfiguration.configuration().getObjectListAs("transmutes", json -> new JarConfiguration(new Configuration(json)))
+                .orElseThrow(missing("transmutes"));
+        int parallelism = jarConfiguration.getInteger("parallelism").filter(v -> v > 0).orElse(Schedulers.DEFAULT_POOL_SIZE);
+        int prefetch = jarConfiguration.getInteger("prefetch").filter(v -> v > 0).orElse(Queues.SMALL_BUFFER_SIZE);
+        Scheduler scheduler = Schedulers.boundedElastic();
+
+        if (jarConfiguration.getBoolean("ordered").orElse(true)) {
+            return (flux, context) -> flux.index(Sequenced::new)
+                    .parallel(parallelism, prefetch)
+                    .runOn(scheduler, prefetch)
+                    .groups()
+                    .collectList()
+                    .flatMapMany(rails -> Flux.mergeComparing(prefetch, Comparator.comparingLong(Sequenced::sequence),
+                            rails.stream()
+                                    .map(rail -> applyTransmutes(rail, transmutes, transmutationConfiguration))
+                                    .toArray(ParallelTransmuteJar::newRails)))
+                    .map(Sequenced::item);
+        } else {
+            return (flux, context) -> flux.parallel(parallelism, prefetch)
+                    .runOn(scheduler, prefetch)
+                    .groups()
+                    .flatMap(rail -> transmutations.applyTransmutes(rail, transmutes, transmutationConfiguration), parallelism);
+        }
+    }
+
+    /**
+     * Apply the nested transmutes to the items of a rail, and number the results by the items still in the rail.
+     */
+    private Flux<Sequenced> applyTransmutes(Flux<Sequenced> rail, List<JarConfiguration> transmutes, TransmutationConfiguration transmutationConfiguration) {
+        Deque<Sequenced> inRail = new ArrayDeque<>();
+        long[] sequence = {-1};
+        Flux<MetadataJsonNode<JsonNode>> items = rail.map(sequenced ->
+        {
+            synchronized (inRail) {
+                inRail.addLast(sequenced);
+            }
+            return sequenced.item();
+        });
+        return transmutations.applyTransmutes(items, transmutes, transmutationConfiguration)
+                .map(result ->
+                {
+                    synchronized (inRail) {
+                        sequence[0] = sequenceOf(result, inRail, sequence[0]);
+                    }
+                    return new Sequenced(sequence[0], result);
+                });
+    }
+
+    /**
+     * Items before the one the result came from have no more results, as rails are in order, so they are removed.
+     * A result that is not matched removes the oldest item instead, so items without results do not accumulate.
+     */
+    private static long sequenceOf(MetadataJsonNode<JsonNode> result, Deque<Sequenced> inRail, long previous) {
+        int matched = 0;
+        for (Iterator<Sequenced> iterator = inRail.iterator(); iterator.hasNext(); matched++) {
+            MetadataJsonNode<JsonNode> item = iterator.next().item();
+            if (item == result || item.metadata().json() == result.metadata().json()) {
+                for (int i = 0; i < matched; i++) {
+                    inRail.removeFirst();
+                }
+                return inRail.getFirst().sequence();
+            }
+        }
+        inRail.pollFirst();
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Publisher<Sequenced>[] newRails(int size) {
+        return new Publisher[size];
+    }
+
+    private record Sequenced(long sequence, MetadataJsonNode<JsonNode> item) {
+    }
+}
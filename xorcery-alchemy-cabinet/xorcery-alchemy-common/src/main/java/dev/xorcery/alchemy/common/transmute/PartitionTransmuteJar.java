@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.common.transmute;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.alchemy.jar.Transmute;
+import dev.xorcery.alchemy.jar.TransmuteJar;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import jakarta.inject.Inject;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static dev.xorcery.configuration.Configuration.missing;
+
+/**
+ * Hashes a key of each item onto a fixed number of partitions and runs the nested transmutes once per partition.
+ * <p>
+ * Items with the same key always end up in the same partition, so their relative order is preserved,
+ * while different partitions are processed concurrently. Partitions run on the bounded elastic scheduler
+ * since the typical nested transmutes (projections, domain events) do blocking I/O.
+ * <p>
+ * Items without the key have a missing key, which hashes the same for all of them, so they all go to one partition.
+ */
+@Service(name = "partition", metadata = "enabled=jars.enabled")
+public class PartitionTransmuteJar
+        implements TransmuteJar {
+    private final Transmutations transmutations;
+
+    @Inject
+    public PartitionTransmuteJar(Transmutations transmutations) {
+        this.transmutations = transmutations;
+    }
+
+    @Override
+    public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        List<JarConfiguration> transmutes = jarConfiguration.configuration().getObjectListAs("transmutes", json -> new JarConfiguration(new Configuration(json)))
+                .orElseThrow(missing("transmutes"));
+        Function<MetadataJsonNode<JsonNode>, JsonNode> key = toKeyFunction(jarConfiguration.getString("key").orElseThrow(missing("key")));
+        int partitions = jarConfiguration.getInteger("partitions").filter(v -> v > 0).orElse(Schedulers.DEFAULT_POOL_SIZE);
+        int prefetch = jarConfiguration.getInteger("prefetch").filter(v -> v > 0).orElse(Queues.SMALL_BUFFER_SIZE);
+        Scheduler scheduler = Schedulers.boundedElastic();
+
+        return (flux, context) -> flux
+                .groupBy(item -> Math.floorMod(key.apply(item).hashCode(), partitions), prefetch)
+                .flatMap(partition -> transmutations.applyTransmutes(partition.publishOn(scheduler, prefetch), transmutes, transmutationConfiguration), partitions, prefetch);
+    }
+
+    /**
+     * Keys are either JSON pointers (/data/id) or dotted paths (metadata.entity), starting with "data" or "metadata".
+     */
+    static Function<MetadataJsonNode<JsonNode>, JsonNode> toKeyFunction(String key) {
+        JsonPointer pointer = JsonPointer.compile(key.startsWith("/") ? key : "/" + key.replace('.', '/'));
+        String root = pointer.getMatchingProperty();
+        JsonPointer path = pointer.tail();
+        return switch (root) {
+            case "metadata" -> item -> item.metadata().json().at(path);
+            case "data" -> item -> item.data().at(path);
+            default -> throw new IllegalArgumentException("Partition key must start with 'data' or 'metadata':" + key);
+        };
+    }
+}
@@ -18,10 +18,11 @@ package dev.xorcery.alchemy.common.transmute;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.ItemTransmuteJar;
 import dev.xorcery.alchemy.jar.JarConfiguration;
 import dev.xorcery.alchemy.jar.TransmutationConfiguration;
 import dev.xorcery.alchemy.jar.Transmute;
-import dev.xorcery.alchemy.jar.TransmuteJar;
 import dev.xorcery.configuration.Configuration;
 import dev.xorcery.metadata.Metadata;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
@@ -31,57 +32,24 @@ import reactor.util.context.Context;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service(name = "rename", metadata = "enabled=jars.enabled")
 public class RenameTransmuteJar
-        implements TransmuteJar {
+        implements ItemTransmuteJar {
     @Inject
     public RenameTransmuteJar() {
     }
 
     @Override
     public Transmute newTransmute(JarConfiguration configuration, TransmutationConfiguration transmutationConfiguration) {
-        Configuration metadataRenameConfiguration = configuration.configuration().getConfiguration("metadata");
-        Map<String, String> renamedMetadata = new HashMap<>();
-        for (Map.Entry<String, JsonNode> renamedField : metadataRenameConfiguration.json().properties()) {
-            renamedMetadata.put(renamedField.getKey(), renamedField.getValue().asText());
-        }
-        Configuration dataRenameConfiguration = configuration.configuration().getConfiguration("data");
-        Map<String, String> renamedData = new HashMap<>();
-        for (Map.Entry<String, JsonNode> renamedField : dataRenameConfiguration.json().properties()) {
-            renamedData.put(renamedField.getKey(), renamedField.getValue().asText());
-        }
-        Configuration contextRenameConfiguration = configuration.configuration().getConfiguration("context");
-        Map<String, String> renamedContext = new HashMap<>();
-        for (Map.Entry<String, JsonNode> renamedField : contextRenameConfiguration.json().properties()) {
-            renamedContext.put(renamedField.getKey(), renamedField.getValue().asText());
-        }
+        Map<String, String> renamedMetadata = getRenames(configuration, "metadata");
+        Map<String, String> renamedData = getRenames(configuration, "data");
+        Map<String, String> renamedContext = getRenames(configuration, "context");
         return (flux, ctx) -> {
             if (!renamedMetadata.isEmpty() || !renamedData.isEmpty()) {
-                flux = flux.map(item ->
-                {
-                    ObjectNode metadata = item.metadata().json();
-                    if (!renamedMetadata.isEmpty()) {
-                        ObjectNode renamedMetadataJson = JsonNodeFactory.instance.objectNode();
-                        renamedMetadata.forEach((to, from) ->
-                        {
-                            renamedMetadataJson.set(to, item.data().get(from));
-                        });
-                        metadata = renamedMetadataJson;
-                    }
-
-                    JsonNode data = item.data();
-                    if (!renamedData.isEmpty() && data instanceof ObjectNode) {
-                        ObjectNode renamedDataJson = JsonNodeFactory.instance.objectNode();
-                        renamedData.forEach((to, from) ->
-                        {
-                            renamedDataJson.set(to, item.data().get(from));
-                        });
-                        data = renamedDataJson;
-                    }
-
-                    return new MetadataJsonNode<>(new Metadata(metadata), data);
-                });
+                flux = flux.map(rename(renamedMetadata, renamedData));
             }
 
             if (!renamedContext.isEmpty()) {
@@ -98,4 +66,53 @@ public class RenameTransmuteJar
             return flux;
         };
     }
+
+    @Override
+    public Optional<ItemTransmute> newItemTransmute(JarConfiguration configuration, TransmutationConfiguration transmutationConfiguration) {
+        // Renaming context entries needs the full transmute
+        if (!getRenames(configuration, "context").isEmpty())
+            return Optional.empty();
+
+        Function<MetadataJsonNode<JsonNode>, MetadataJsonNode<JsonNode>> rename = rename(getRenames(configuration, "metadata"), getRenames(configuration, "data"));
+        return Optional.of((item, sink) -> sink.next(rename.apply(item)));
+    }
+
+    private Map<String, String> getRenames(JarConfiguration configuration, String name) {
+        Configuration renameConfiguration = configuration.configuration().getConfiguration(name);
+        Map<String, String> renames = new HashMap<>();
+        for (Map.Entry<String, JsonNode> renamedField : renameConfiguration.json().properties()) {
+            renames.put(renamedField.getKey(), renamedField.getValue().asText());
+        }
+        return renames;
+    }
+
+    private Function<MetadataJsonNode<JsonNode>, MetadataJsonNode<JsonNode>> rename(Map<String, String> renamedMetadata, Map<String, String> renamedData) {
+        if (renamedMetadata.isEmpty() && renamedData.isEmpty())
+            return Function.identity();
+
+        return item ->
+        {
+            ObjectNode metadata = item.metadata().json();
+            if (!renamedMetadata.isEmpty()) {
+                ObjectNode renamedMetadataJson = JsonNodeFactory.instance.objectNode();
+                renamedMetadata.forEach((to, from) ->
+                {
+                    renamedMetadataJson.set(to, item.data().get(from));
+                });
+                metadata = renamedMetadataJson;
+            }
+
+            JsonNode data = item.data();
+            if (!renamedData.isEmpty() && data instanceof ObjectNode) {
+                ObjectNode renamedDataJson = JsonNodeFactory.instance.objectNode();
+                renamedData.forEach((to, from) ->
+                {
+                    renamedDataJson.set(to, item.data().get(from));
+                });
+                data = renamedDataJson;
+            }
+
+            return new MetadataJsonNode<>(new Metadata(metadata), data);
+        };
+    }
 }
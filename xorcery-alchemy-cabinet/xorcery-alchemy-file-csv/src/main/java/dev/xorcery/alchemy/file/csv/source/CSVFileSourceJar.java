@@ -19,28 +19,48 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.opencsv.*;
+import com.opencsv.exceptions.CsvValidationException;
+import dev.xorcery.alchemy.crucible.FollowInputStream;
+import dev.xorcery.alchemy.crucible.MappedFile;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
 import dev.xorcery.alchemy.jar.*;
 import dev.xorcery.collections.Element;
-import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.ContextViewElement;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import dev.xorcery.reactivestreams.api.ReactiveStreamsContext;
+import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.*;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.concurrent.Callable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 @Service(name = "csv", metadata = "enabled=jars.enabled")
 public class CSVFileSourceJar
         implements SourceJar {
 
-    private static final Scheduler scheduler = Schedulers.newSingle("CSV");
+    private final Scheduler scheduler;
+
+    @Inject
+    public CSVFileSourceJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
 
     @Override
     public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
@@ -50,6 +70,16 @@ public class CSVFileSourceJar
             URL csvResource = sourceUrl instanceof URL url ? url : new URL(sourceUrl.toString());
             String csvResourceUrl = csvResource.toExternalForm();
 
+            boolean follow = jarConfiguration.getBoolean("follow").orElse(false);
+            if (follow && !csvResource.getProtocol().equals("file")) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Following requires a file: sourceUrl"));
+            }
+
+            if (!follow && jarConfiguration.getString("parser").orElse("opencsv").equals("native")
+                    && csvResource.getProtocol().equals("file")) {
+                return newNativeSource(jarConfiguration, Path.of(csvResource.toURI()), csvResourceUrl);
+            }
+
             CSVParserBuilder parserBuilder = new CSVParserBuilder();
 
             jarConfiguration.getString("escape").ifPresent(c -> parserBuilder.withEscapeChar(c.charAt(0)));
@@ -60,45 +90,55 @@ public class CSVFileSourceJar
             return Flux.<MetadataJsonNode<JsonNode>>create(sink -> {
 
                 try {
-                    if (jarConfiguration.getBoolean("headers").orElse(false)) {
-                        CSVReaderHeaderAware csvReader = new CSVReaderHeaderAwareBuilder(new BufferedReader(new InputStreamReader(csvResource.openStream(), StandardCharsets.UTF_8)))
-                                .withCSVParser(csvParser)
-                                .build();
-                        Callable<MetadataJsonNode<JsonNode>> itemReader = () ->
+                    boolean headers = jarConfiguration.getBoolean("headers").orElse(false);
+                    ContextViewElement context = new ContextViewElement(sink.contextView());
+                    long streamPosition = context.getLong(ReactiveStreamsContext.streamPosition)
+                            .map(pos -> pos + 1).orElse(0L);
+                    if (follow && streamPosition > 0) {
+                        // Row numbers are per file, so a position in a rotated file means the current file is read from the start
+                        String streamFile = context.getString(JarContext.streamFile).orElse(null);
+                        if (streamFile != null && !streamFile.equals(FollowInputStream.getFileId(Path.of(csvResource.toURI()))))
+                            streamPosition = 0;
+                    }
+                    ColumnTypes columnTypes = getColumnTypes(jarConfiguration, csvResource, csvParser, headers);
+                    ResumeStream resumeStream = openStream(jarConfiguration, csvResource, headers, follow, streamPosition);
+                    Function<InputStream, CSVReader> readers = in -> new CSVReaderBuilder(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+                            .withCSVParser(csvParser)
+                            .build();
+                    CSVReader csvReader = readers.apply(resumeStream.stream());
+                    RowReaderStreamer.RowMapper rowMapper;
+                    if (headers) {
+                        String[] headerNames = csvReader.readNext();
+                        if (headerNames == null)
+                            headerNames = new String[0];
+                        ColumnTypes.ColumnParser[] columnParsers = columnTypes.resolve(headerNames);
+                        String[] names = headerNames;
+                        rowMapper = row ->
                         {
-                            Map<String, String> map = csvReader.readMap();
-                            if (map == null)
-                                return null;
+                            // Same check as CSVReaderHeaderAware
+                            if (row.length != names.length)
+                                throw new CsvValidationException("The number of data elements is not the same as the number of header elements");
                             ObjectNode data = JsonNodeFactory.instance.objectNode();
-                            map.forEach(data::put);
-                            return new MetadataJsonNode<>(new Metadata.Builder()
-                                    .add(StandardMetadata.sourceUrl, csvResourceUrl)
-                                    .build(), data);
+                            for (int i = 0; i < row.length; i++) {
+                                data.set(names[i], columnParsers[i].parse(row[i]));
+                            }
+                            return data;
                         };
-                        RowReaderStreamer streamer = new RowReaderStreamer(sink, csvReader, itemReader);
-                        sink.onDispose(streamer);
-                        sink.onRequest(streamer::request);
                     } else {
-                        CSVReader csvReader = new CSVReaderBuilder(new BufferedReader(new InputStreamReader(csvResource.openStream(), StandardCharsets.UTF_8)))
-                                .withCSVParser(csvParser)
-                                .build();
-                        Callable<MetadataJsonNode<JsonNode>> itemReader = () ->
+                        ColumnTypes.ColumnParser[] columnParsers = columnTypes.resolveIndexed();
+                        rowMapper = row ->
                         {
-                            String[] row = csvReader.readNext();
-                            if (row == null)
-                                return null;
-                            ArrayNode data = JsonNodeFactory.instance.arrayNode();
-                            for (String column : row) {
-                                data.add(column);
+                            ArrayNode data = JsonNodeFactory.instance.arrayNode(row.length);
+                            for (int i = 0; i < row.length; i++) {
+                                data.add(i < columnParsers.length ? columnParsers[i].parse(row[i]) : TextNode.valueOf(row[i]));
                             }
-                            return new MetadataJsonNode<>(new Metadata.Builder()
-                                    .add(StandardMetadata.sourceUrl, csvResourceUrl)
-                                    .build(), data);
+                            return data;
                         };
-                        RowReaderStreamer streamer = new RowReaderStreamer(sink, csvReader, itemReader);
-                        sink.onDispose(streamer);
-                        sink.onRequest(streamer::request);
                     }
+                    RowReaderStreamer streamer = new RowReaderStreamer(sink, csvReader, readers, resumeStream.follow(), rowMapper, csvResourceUrl,
+                            jarConfiguration.getBoolean("skipBlankRows").orElse(false), resumeStream.skip(), streamPosition);
+                    sink.onDispose(resumeStream.onDispose(streamer));
+                    sink.onRequest(streamer::request);
                 } catch (Throwable e) {
                     sink.error(e);
                 }
@@ -107,4 +147,131 @@ public class CSVFileSourceJar
             return Flux.error(e);
         }
     }
+
+    /**
+     * Configured column types, plus inferred types for the other columns if inferTypes is set,
+     * based on the first rows read with a separate reader.
+     */
+    private ColumnTypes getColumnTypes(JarConfiguration jarConfiguration, URL csvResource, CSVParser csvParser, boolean headers) throws IOException, CsvValidationException {
+        ColumnTypes columnTypes = ColumnTypes.of(jarConfiguration);
+        int inferTypes = ColumnTypes.getInferTypes(jarConfiguration);
+        if (inferTypes <= 0)
+            return columnTypes;
+
+        try (CSVReader sampleReader = new CSVReaderBuilder(new BufferedReader(new InputStreamReader(csvResource.openStream(), StandardCharsets.UTF_8)))
+                .withCSVParser(csvParser)
+                .build()) {
+            List<String> headerNames = null;
+            if (headers) {
+                String[] header = sampleReader.readNext();
+                headerNames = header == null ? List.of() : List.of(header);
+            }
+            List<String[]> samples = new ArrayList<>(inferTypes);
+            String[] row;
+            while (samples.size() < inferTypes && (row = sampleReader.readNext()) != null) {
+                samples.add(row);
+            }
+            return columnTypes.infer(headerNames, samples);
+        }
+    }
+
+    private record ResumeStream(InputStream stream, long skip, FollowInputStream follow) {
+
+        /**
+         * A followed file is closed before the reader, to wake up a read that is waiting for appended rows.
+         */
+        Disposable onDispose(Disposable streamer) {
+            if (follow == null)
+                return streamer;
+            return () ->
+            {
+                try {
+                    follow.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+                streamer.dispose();
+            };
+        }
+    }
+
+    /**
+     * Open the CSV resource for reading from the given row. With an index the stream starts at the closest indexed row,
+     * with the header row prepended, so only the remaining rows have to be skipped by the reader.
+     * If follow is set the stream waits for appended rows at the end of the file instead of ending.
+     */
+    private ResumeStream openStream(JarConfiguration jarConfiguration, URL csvResource, boolean headers, boolean follow, long row) throws IOException, URISyntaxException {
+        if (row == 0 || !jarConfiguration.getBoolean("index").orElse(false) || !csvResource.getProtocol().equals("file")) {
+            if (follow) {
+                FollowInputStream followStream = newFollowStream(jarConfiguration, Path.of(csvResource.toURI()), 0, headers);
+                return new ResumeStream(followStream, row, followStream);
+            }
+            return new ResumeStream(csvResource.openStream(), row, null);
+        }
+
+        Path csvPath = Path.of(csvResource.toURI());
+        RowScanner scanner = new RowScanner(new MappedFile(csvPath),
+                jarConfiguration.getString("separator").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_SEPARATOR),
+                jarConfiguration.getString("quote").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_QUOTE_CHARACTER),
+                jarConfiguration.getString("escape").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_ESCAPE_CHARACTER));
+        long dataStart = headers ? scanner.nextRow(0) : 0;
+        CsvIndex index = CsvIndex.load(csvPath, scanner, dataStart).orElseGet(() ->
+        {
+            CsvIndex built = CsvIndex.build(scanner, dataStart);
+            built.save(csvPath, scanner);
+            return built;
+        });
+        CsvIndex.Seek seek = index.seek(row);
+
+        FollowInputStream followStream = null;
+        InputStream rows;
+        if (follow) {
+            rows = followStream = newFollowStream(jarConfiguration, csvPath, seek.offset(), headers);
+        } else {
+            FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ);
+            channel.position(seek.offset());
+            rows = Channels.newInputStream(channel);
+        }
+        if (dataStart == 0)
+            return new ResumeStream(rows, row - seek.row(), followStream);
+        byte[] header;
+        try (InputStream in = Files.newInputStream(csvPath)) {
+            header = in.readNBytes((int) dataStart);
+        }
+        return new ResumeStream(new SequenceInputStream(new ByteArrayInputStream(header), rows), row - seek.row(), followStream);
+    }
+
+    private FollowInputStream newFollowStream(JarConfiguration jarConfiguration, Path csvPath, long offset, boolean headers) throws IOException {
+        Duration followDelay = jarConfiguration.getString("followDelay").map(delay -> Duration.parse("PT" + delay)).orElse(Duration.ofSeconds(1));
+        // Rotated files start with their own header row, and are read with a new reader from the start
+        return new FollowInputStream(csvPath, offset, headers, true, followDelay);
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> newNativeSource(JarConfiguration jarConfiguration, Path csvPath, String csvResourceUrl) {
+        int parallelism = jarConfiguration.getInteger("parallelism")
+                .filter(p -> p > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        long chunkSize = jarConfiguration.getLong("chunkSize")
+                .filter(size -> size > 0)
+                .orElse(NativeCsvParser.DEFAULT_CHUNK_SIZE);
+        return Flux.deferContextual(context ->
+        {
+            try {
+                NativeCsvParser parser = new NativeCsvParser(csvPath, csvResourceUrl,
+                        jarConfiguration.getString("separator").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_SEPARATOR),
+                        jarConfiguration.getString("quote").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_QUOTE_CHARACTER),
+                        jarConfiguration.getString("escape").map(c -> c.charAt(0)).orElse(ICSVParser.DEFAULT_ESCAPE_CHARACTER),
+                        jarConfiguration.getBoolean("headers").orElse(false),
+                        jarConfiguration.getBoolean("index").orElse(false),
+                        ColumnTypes.of(jarConfiguration),
+                        ColumnTypes.getInferTypes(jarConfiguration));
+                long skip = new ContextViewElement(context)
+                        .getLong(ReactiveStreamsContext.streamPosition)
+                        .map(pos -> pos + 1).orElse(0L);
+                return parser.parse(skip, parallelism, chunkSize, Schedulers.parallel());
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+        });
+    }
 }
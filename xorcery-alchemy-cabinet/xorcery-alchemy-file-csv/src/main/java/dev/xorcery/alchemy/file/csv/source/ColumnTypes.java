@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.*;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Column types of a CSV source, so cells are emitted as numbers and booleans instead of text.
+ * Columns are identified by header name, or by column index when there are no headers.
+ * Types are either configured explicitly, or inferred from a sample of the first rows.
+ * Cells that do not parse as the column type are emitted as text, and empty cells as null. Integer and long cells
+ * beyond the range of the type are widened instead, as an inferred type is only based on the sampled rows.
+ */
+class ColumnTypes {
+
+    // Plain decimal numbers, without NaN, Infinity, hexadecimal or type suffixes such as 1d, which Double.parseDouble accepts
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+    private static final Pattern INTEGRAL = Pattern.compile("[+-]?\\d+");
+
+    interface ColumnParser {
+        JsonNode parse(String value);
+    }
+
+    static final ColumnParser STRING = TextNode::valueOf;
+    static final ColumnParser INTEGER = value -> parseNumber(value, v ->
+    {
+        try {
+            long l = Long.parseLong(v);
+            return l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? IntNode.valueOf((int) l) : LongNode.valueOf(l);
+        } catch (NumberFormatException e) {
+            return parseBigInteger(v);
+        }
+    });
+    static final ColumnParser LONG = value -> parseNumber(value, v ->
+    {
+        try {
+            return LongNode.valueOf(Long.parseLong(v));
+        } catch (NumberFormatException e) {
+            return parseBigInteger(v);
+        }
+    });
+    static final ColumnParser NUMBER = value -> parseNumber(value, v ->
+    {
+        if (!DECIMAL.matcher(v).matches())
+            throw new NumberFormatException(v);
+        return DoubleNode.valueOf(Double.parseDouble(v));
+    });
+    static final ColumnParser BOOLEAN = value ->
+    {
+        String v = value.strip();
+        if (v.equalsIgnoreCase("true"))
+            return BooleanNode.TRUE;
+        if (v.equalsIgnoreCase("false"))
+            return BooleanNode.FALSE;
+        return v.isEmpty() ? NullNode.instance : TextNode.valueOf(value);
+    };
+
+    private final Map<String, ColumnParser> parsers;
+
+    private ColumnTypes(Map<String, ColumnParser> parsers) {
+        this.parsers = parsers;
+    }
+
+    /**
+     * @return explicitly configured column types
+     */
+    static ColumnTypes of(JarConfiguration jarConfiguration) {
+        Map<String, ColumnParser> parsers = new HashMap<>();
+        jarConfiguration.configuration().getJson("types").ifPresent(types ->
+                types.properties().forEach(type -> parsers.put(type.getKey(), of(type.getValue().asText()))));
+        return new ColumnTypes(parsers);
+    }
+
+    static ColumnParser of(String type) {
+        return switch (type) {
+            case "string" -> STRING;
+            case "integer" -> INTEGER;
+            case "long" -> LONG;
+            case "number" -> NUMBER;
+            case "boolean" -> BOOLEAN;
+            default -> throw new IllegalArgumentException("Unknown column type:" + type);
+        };
+    }
+
+    static int getInferTypes(JarConfiguration jarConfiguration) {
+        return jarConfiguration.getInteger("inferTypes").orElse(0);
+    }
+
+    boolean isEmpty() {
+        return parsers.isEmpty();
+    }
+
+    /**
+     * Infer the types of columns that have no configured type.
+     *
+     * @param headers header names, or null to identify columns by index
+     * @param rows    sample rows
+     */
+    ColumnTypes infer(List<String> headers, List<String[]> rows) {
+        Map<String, ColumnParser> inferred = new HashMap<>();
+        int columns = rows.stream().mapToInt(row -> row.length).max().orElse(0);
+        for (int column = 0; column < columns; column++) {
+            String name = headers == null ? Integer.toString(column) : column < headers.size() ? headers.get(column) : null;
+            if (name == null)
+                continue;
+            Inference inference = new Inference();
+            for (String[] row : rows) {
+                if (column < row.length)
+                    inference.accept(row[column]);
+            }
+            inferred.put(name, inference.result());
+        }
+        inferred.putAll(parsers);
+        return new ColumnTypes(inferred);
+    }
+
+    ColumnParser get(String name) {
+        return parsers.getOrDefault(name, STRING);
+    }
+
+    /**
+     * @return parser per column, resolved once so items are parsed without lookups
+     */
+    ColumnParser[] resolve(String[] headers) {
+        ColumnParser[] resolved = new ColumnParser[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            resolved[i] = get(headers[i]);
+        }
+        return resolved;
+    }
+
+    /**
+     * @return parser per column index, for sources without headers. Columns beyond the array are text
+     */
+    ColumnParser[] resolveIndexed() {
+        int columns = 0;
+        for (String name : parsers.keySet()) {
+            try {
+                columns = Math.max(columns, Integer.parseInt(name) + 1);
+            } catch (NumberFormatException e) {
+                // Not a column index
+            }
+        }
+        ColumnParser[] resolved = new ColumnParser[columns];
+        for (int i = 0; i < columns; i++) {
+            resolved[i] = parsers.getOrDefault(Integer.toString(i), STRING);
+        }
+        return resolved;
+    }
+
+    private static JsonNode parseNumber(String value, Function<String, JsonNode> parser) {
+        String v = value.strip();
+        if (v.isEmpty())
+            return NullNode.instance;
+        try {
+            return parser.apply(v);
+        } catch (NumberFormatException e) {
+            return TextNode.valueOf(value);
+        }
+    }
+
+    private static JsonNode parseBigInteger(String v) {
+        if (!INTEGRAL.matcher(v).matches())
+            throw new NumberFormatException(v);
+        return BigIntegerNode.valueOf(new BigInteger(v));
+    }
+
+    /**
+     * Narrowest type that all non-empty sample values of a column parse as. Integers with leading zeros, such as
+     * zip codes and padded identifiers, are text, so the zeros are kept.
+     */
+    private static class Inference {
+        private boolean isBoolean = true;
+        private boolean isInteger = true;
+        private boolean isLong = true;
+        private boolean isNumber = true;
+        private boolean hasValues;
+
+        void accept(String value) {
+            String v = value.strip();
+            if (v.isEmpty())
+                return;
+            hasValues = true;
+            if (isBoolean)
+                isBoolean = v.equalsIgnoreCase("true") || v.equalsIgnoreCase("false");
+            if (isNumber && hasLeadingZero(v)) {
+                isInteger = isLong = isNumber = false;
+                return;
+            }
+            if (isLong) {
+                try {
+                    long l = Long.parseLong(v);
+                    isInteger &= l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE;
+                } catch (NumberFormatException e) {
+                    isInteger = isLong = false;
+                }
+            }
+            if (isNumber && !isLong) {
+                isNumber = DECIMAL.matcher(v).matches();
+            }
+        }
+
+        private static boolean hasLeadingZero(String v) {
+            int i = v.charAt(0) == '-' || v.charAt(0) == '+' ? 1 : 0;
+            return v.length() > i + 1 && v.charAt(i) == '0' && Character.isDigit(v.charAt(i + 1));
+        }
+
+        ColumnParser result() {
+            if (!hasValues)
+                return STRING;
+            if (isBoolean)
+                return BOOLEAN;
+            if (isInteger)
+                return INTEGER;
+            if (isLong)
+                return LONG;
+            if (isNumber)
+                return NUMBER;
+            return STRING;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.source;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sparse index from row number to byte offset of a CSV file, stored next to it as a ".idx" file.
+ * Resuming a source seeks to the closest indexed row instead of reading all rows before it.
+ * The index is only used if the size and modification time of the CSV file are unchanged.
+ */
+class CsvIndex {
+
+    static final int INTERVAL = 65536;
+
+    private static final int MAGIC = 0x43535649;
+    private static final int VERSION = 1;
+
+    private final long[] offsets;
+
+    CsvIndex(long[] offsets) {
+        this.offsets = offsets;
+    }
+
+    record Seek(long row, long offset) {
+    }
+
+    /**
+     * @return closest indexed row at or before the given data row
+     */
+    Seek seek(long row) {
+        int i = (int) Math.min(row / INTERVAL, offsets.length - 1);
+        return new Seek((long) i * INTERVAL, offsets[i]);
+    }
+
+    static Path path(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".idx");
+    }
+
+    static Optional<CsvIndex> load(Path csv, RowScanner scanner, long dataStart) {
+        Path indexPath = path(csv);
+        if (!Files.isRegularFile(indexPath))
+            return Optional.empty();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != Files.size(csv)
+                    || in.readLong() != Files.getLastModifiedTime(csv).toMillis()
+                    || in.readLong() != scanner.format()
+                    || in.readInt() != INTERVAL)
+                return Optional.empty();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            if (offsets.length == 0 || offsets[0] != dataStart)
+                return Optional.empty();
+            return Optional.of(new CsvIndex(offsets));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Index a file with a full scan of row boundaries, which is much cheaper than parsing the rows.
+     */
+    static CsvIndex build(RowScanner scanner, long dataStart) {
+        Builder builder = new Builder(dataStart);
+        long size = scanner.file.size();
+        long position = dataStart;
+        long row = 0;
+        while (position < size) {
+            position = scanner.nextRow(position);
+            builder.row(++row, position);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write the index next to the CSV file. Failing to do so, e.g. in a read-only directory, only means resume is slower.
+     */
+    void save(Path csv, RowScanner scanner) {
+        Path indexPath = path(csv);
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), indexPath.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(Files.size(csv));
+                out.writeLong(Files.getLastModifiedTime(csv).toMillis());
+                out.writeLong(scanner.format());
+                out.writeInt(INTERVAL);
+                out.writeInt(offsets.length);
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+            }
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            try {
+                if (tempPath != null)
+                    Files.deleteIfExists(tempPath);
+            } catch (IOException ex) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Collects the offset of every INTERVAL-th row while a file is scanned from the first data row.
+     */
+    static class Builder {
+        private long[] offsets = new long[16];
+        private int count;
+
+        Builder(long dataStart) {
+            offsets[count++] = dataStart;
+        }
+
+        /**
+         * @param row    data row number
+         * @param offset byte offset where the row starts
+         */
+        void row(long row, long offset) {
+            if (row % INTERVAL == 0 && row / INTERVAL == count) {
+                if (count == offsets.length)
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                offsets[count++] = offset;
+            }
+        }
+
+        CsvIndex build() {
+            return new CsvIndex(Arrays.copyOf(offsets, count));
+        }
+    }
+}
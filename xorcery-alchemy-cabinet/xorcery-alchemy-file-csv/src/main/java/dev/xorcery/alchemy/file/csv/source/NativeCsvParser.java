@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import dev.xorcery.alchemy.crucible.MappedFile;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * CSV parser working directly on the bytes of a memory mapped file.
+ * <p>
+ * The file is split into chunks that end at row boundaries, see {@link RowScanner} for the rules.
+ * Chunks are parsed in parallel, and emitted in file order with streamPosition being the row number. Blank rows are
+ * skipped, but still count as rows.
+ * <p>
+ * Finding the chunk boundaries is a serial scan ahead of the parsing, and up to parallelism chunks are in flight,
+ * each held as a list of parsed items until it is emitted. Memory use is therefore about parallelism times the
+ * items of one chunk, which the chunk size bounds.
+ */
+class NativeCsvParser {
+
+    static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final Path path;
+    private final String sourceUrl;
+    private final boolean indexed;
+    private final RowScanner scanner;
+    private final MappedFile file;
+    private final byte separator;
+    private final byte quote;
+    private final byte escape;
+    private final boolean hasEscape;
+    private final String[] headerNames;
+    private final ColumnTypes.ColumnParser[] columnParsers;
+    private final long dataStart;
+
+    NativeCsvParser(Path path, String sourceUrl, char separator, char quote, Character escape, boolean headers, boolean indexed,
+                    ColumnTypes columnTypes, int inferTypes) throws IOException {
+        this.path = path;
+        this.sourceUrl = sourceUrl;
+        this.indexed = indexed;
+        this.scanner = new RowScanner(new MappedFile(path), separator, quote, escape);
+        this.file = scanner.file;
+        this.separator = scanner.separator;
+        this.quote = scanner.quote;
+        this.escape = scanner.escape;
+        this.hasEscape = scanner.hasEscape;
+
+        if (headers) {
+            List<String> names = new ArrayList<>();
+            dataStart = new RowParser().parseRow(0, names);
+            // Header names are keys of every item, so share one instance of each
+            headerNames = names.stream().map(String::intern).toArray(String[]::new);
+        } else {
+            dataStart = 0;
+            headerNames = null;
+        }
+
+        if (inferTypes > 0) {
+            RowParser parser = new RowParser();
+            List<String[]> samples = new ArrayList<>(inferTypes);
+            List<String> fields = new ArrayList<>();
+            long position = dataStart;
+            while (samples.size() < inferTypes && position < file.size()) {
+                fields.clear();
+                position = parser.parseRow(position, fields);
+                samples.add(fields.toArray(new String[0]));
+            }
+            columnTypes = columnTypes.infer(headerNames == null ? null : List.of(headerNames), samples);
+        }
+        columnParsers = headerNames != null ? columnTypes.resolve(headerNames) : columnTypes.resolveIndexed();
+    }
+
+    /**
+     * @param chunkSize bytes per chunk, ending at the first row boundary after it
+     */
+    Flux<MetadataJsonNode<JsonNode>> parse(long skip, int parallelism, long chunkSize, Scheduler scheduler) {
+        return Flux.<Chunk, ChunkScanner>generate(() -> new ChunkScanner(skip, chunkSize), (chunkScanner, sink) ->
+                {
+                    Chunk chunk = chunkScanner.next();
+                    if (chunk == null)
+                        sink.complete();
+                    else
+                        sink.next(chunk);
+                    return chunkScanner;
+                })
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> parse(chunk)).subscribeOn(scheduler), parallelism, 1)
+                .flatMapIterable(Function.identity());
+    }
+
+    private List<MetadataJsonNode<JsonNode>> parse(Chunk chunk) {
+        RowParser parser = new RowParser();
+        List<String> fields = new ArrayList<>();
+        List<MetadataJsonNode<JsonNode>> items = new ArrayList<>();
+        long timestamp = System.currentTimeMillis();
+        long position = chunk.start();
+        long row = chunk.firstRow();
+        while (position < chunk.end()) {
+            fields.clear();
+            position = parser.parseRow(position, fields);
+            long streamPosition = row++;
+            if (fields.size() == 1 && fields.getFirst().isEmpty())
+                continue; // Blank line
+
+            JsonNode data;
+            if (headerNames != null) {
+                ObjectNode object = JsonNodeFactory.instance.objectNode();
+                for (int i = 0; i < fields.size() && i < headerNames.length; i++) {
+                    object.set(headerNames[i], columnParsers[i].parse(fields.get(i)));
+                }
+                data = object;
+            } else {
+                ArrayNode array = JsonNodeFactory.instance.arrayNode(fields.size());
+                for (int i = 0; i < fields.size(); i++) {
+                    array.add(i < columnParsers.length ? columnParsers[i].parse(fields.get(i)) : TextNode.valueOf(fields.get(i)));
+                }
+                data = array;
+            }
+            items.add(new MetadataJsonNode<>(new Metadata.Builder()
+                    .add(StandardMetadata.sourceUrl, sourceUrl)
+                    .add(StandardMetadata.timestamp, timestamp)
+                    .add(StandardMetadata.streamPosition, streamPosition)
+                    .build(), data));
+        }
+        return items;
+    }
+
+    record Chunk(long start, long end, long firstRow) {
+    }
+
+    /**
+     * Splits the file into chunks, starting from the closest indexed row when resuming.
+     * Without a valid index one is built along the way, as all rows are scanned anyway, and saved once the end is reached.
+     */
+    private class ChunkScanner {
+        private final long chunkSize;
+        private long position;
+        private long row;
+        private CsvIndex.Builder indexBuilder;
+
+        ChunkScanner(long skip, long chunkSize) {
+            this.chunkSize = chunkSize;
+            CsvIndex index = indexed ? CsvIndex.load(path, scanner, dataStart).orElse(null) : null;
+            if (index != null) {
+                CsvIndex.Seek seek = index.seek(skip);
+                position = seek.offset();
+                row = seek.row();
+            } else {
+                position = dataStart;
+                indexBuilder = indexed ? new CsvIndex.Builder(dataStart) : null;
+            }
+            while (row < skip && position < file.size()) {
+                nextRow();
+            }
+        }
+
+        Chunk next() {
+            if (position >= file.size()) {
+                if (indexBuilder != null) {
+                    indexBuilder.build().save(path, scanner);
+                    indexBuilder = null;
+                }
+                return null;
+            }
+            long start = position;
+            long firstRow = row;
+            long target = Math.min(file.size(), start + chunkSize);
+            while (position < target) {
+                nextRow();
+            }
+            return new Chunk(start, position, firstRow);
+        }
+
+        private void nextRow() {
+            position = scanner.nextRow(position);
+            row++;
+            if (indexBuilder != null)
+                indexBuilder.row(row, position);
+        }
+    }
+
+    private class RowParser {
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        long parseRow(long position, List<String> fields) {
+            long size = file.size();
+            length = 0;
+            boolean fieldStart = true;
+            while (position < size) {
+                byte b = file.get(position++);
+                if (b == quote && fieldStart) {
+                    while (position < size) {
+                        byte q = file.get(position++);
+                        if (hasEscape && q == escape) {
+                            if (position < size)
+                                append(file.get(position++));
+                        } else if (q == quote) {
+                            if (position < size && file.get(position) == quote) {
+                                append(quote);
+                                position++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            append(q);
+                        }
+                    }
+                    fieldStart = false;
+                } else if (b == separator) {
+                    fields.add(field(false));
+                    fieldStart = true;
+                } else if (b == '\n') {
+                    fields.add(field(true));
+                    return position;
+                } else {
+                    if (hasEscape && b == escape && position < size)
+                        b = file.get(position++);
+                    append(b);
+                    fieldStart = false;
+                }
+            }
+            fields.add(field(true));
+            return position;
+        }
+
+        private void append(byte b) {
+            if (length == buffer.length)
+                buffer = Arrays.copyOf(buffer, length * 2);
+            buffer[length++] = b;
+        }
+
+        private String field(boolean lastInRow) {
+            if (lastInRow && length > 0 && buffer[length - 1] == '\r')
+                length--;
+            String field = length == 0 ? "" : new String(buffer, 0, length, StandardCharsets.UTF_8);
+            length = 0;
+            return field;
+        }
+    }
+}
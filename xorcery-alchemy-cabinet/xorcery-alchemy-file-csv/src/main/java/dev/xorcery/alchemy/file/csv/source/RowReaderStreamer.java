@@ -17,34 +17,68 @@ package dev.xorcery.alchemy.file.csv.source;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.opencsv.CSVReader;
-import dev.xorcery.reactivestreams.api.ContextViewElement;
+import com.opencsv.exceptions.CsvValidationException;
+import dev.xorcery.alchemy.crucible.FollowInputStream;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.metadata.Metadata;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
-import dev.xorcery.reactivestreams.api.ReactiveStreamsContext;
 import reactor.core.Disposable;
 import reactor.core.publisher.FluxSink;
 
 import java.io.IOException;
-import java.util.concurrent.Callable;
+import java.io.InputStream;
+import java.util.function.Function;
 
+/**
+ * Reads rows on request, one item per row. streamPosition is the row number. Blank rows are mapped like any other row,
+ * unless skipBlankRows is set, in which case they are skipped but still count as rows, as with the native parser.
+ * <p>
+ * A followed file ends reads at rotation, after which rows are read from the new file with a new reader. Row numbers
+ * are per file, so they start over at 0, and the identity of the file is added as streamFile.
+ */
 class RowReaderStreamer
         implements Disposable {
-    private final CSVReader csvReader;
-    private final Callable<MetadataJsonNode<JsonNode>> itemReader;
+
+    interface RowMapper {
+        JsonNode map(String[] row) throws CsvValidationException;
+    }
+
+    private final Function<InputStream, CSVReader> readers;
+    private final FollowInputStream follow;
+    private final RowMapper rowMapper;
+    private final String sourceUrl;
+    private final boolean skipBlankRows;
     private final FluxSink<? super MetadataJsonNode<JsonNode>> sink;
+    private CSVReader csvReader;
+    private String streamFile;
     private long streamPosition = 0;
 
-    public RowReaderStreamer(FluxSink<? super MetadataJsonNode<JsonNode>> sink, CSVReader csvReader, Callable<MetadataJsonNode<JsonNode>> itemReader) {
+    /**
+     * @param readers        creates readers for the files a followed file is rotated to
+     * @param follow         the followed file, or null
+     * @param skipBlankRows  skip rows without any content instead of mapping them
+     * @param skip           rows to skip in the reader
+     * @param streamPosition streamPosition of the first row after the skipped ones
+     */
+    public RowReaderStreamer(FluxSink<? super MetadataJsonNode<JsonNode>> sink, CSVReader csvReader, Function<InputStream, CSVReader> readers, FollowInputStream follow, RowMapper rowMapper, String sourceUrl, boolean skipBlankRows, long skip, long streamPosition) {
         this.sink = sink;
         this.csvReader = csvReader;
-        this.itemReader = itemReader;
+        this.readers = readers;
+        this.follow = follow;
+        this.rowMapper = rowMapper;
+        this.sourceUrl = sourceUrl;
+        this.skipBlankRows = skipBlankRows;
+        if (follow != null)
+            this.streamFile = follow.getFileId();
 
         // Skip until position
-        long skip = new ContextViewElement(sink.contextView())
-                .getLong(ReactiveStreamsContext.streamPosition)
-                .map(pos -> pos + 1).orElse(0L);
         try {
-            csvReader.skip((int) skip);
-            streamPosition = skip;
+            while (skip > 0) {
+                int rows = (int) Math.min(skip, Integer.MAX_VALUE);
+                csvReader.skip(rows);
+                skip -= rows;
+            }
+            this.streamPosition = streamPosition;
         } catch (IOException e) {
             sink.error(e);
         }
@@ -55,14 +89,25 @@ class RowReaderStreamer
             if (request == 0)
                 return;
 
-            MetadataJsonNode<JsonNode> item = null;
-            while (request-- > 0 && (item = itemReader.call()) != null) {
-                item.metadata().json().put("timestamp", System.currentTimeMillis());
-                item.metadata().json().put("streamPosition", streamPosition++);
-                sink.next(item);
+            String[] row = null;
+            while (request > 0 && ((row = csvReader.readNext()) != null || nextFile())) {
+                if (row == null)
+                    continue;
+                long rowPosition = streamPosition++;
+                if (skipBlankRows && row.length == 1 && row[0].isEmpty())
+                    continue;
+
+                Metadata.Builder metadata = new Metadata.Builder()
+                        .add(StandardMetadata.sourceUrl, sourceUrl)
+                        .add(StandardMetadata.timestamp, System.currentTimeMillis())
+                        .add(StandardMetadata.streamPosition, rowPosition);
+                if (streamFile != null)
+                    metadata.add(StandardMetadata.streamFile, streamFile);
+                sink.next(new MetadataJsonNode<>(metadata.build(), rowMapper.map(row)));
+                request--;
             }
 
-            if (item == null) {
+            if (row == null) {
                 sink.complete();
             }
         } catch (Throwable e) {
@@ -70,6 +115,20 @@ class RowReaderStreamer
         }
     }
 
+    /**
+     * @return true if the followed file was rotated and rows are now read from the new file
+     */
+    private boolean nextFile() throws IOException {
+        if (follow == null || !follow.nextFile())
+            return false;
+
+        // The previous reader is not closed, as that would close the followed file
+        csvReader = readers.apply(follow);
+        streamFile = follow.getFileId();
+        streamPosition = 0;
+        return true;
+    }
+
     @Override
     public void dispose() {
         try {
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.source;
+
+import dev.xorcery.alchemy.crucible.MappedFile;
+
+/**
+ * Finds row boundaries in a memory mapped CSV file without parsing the fields.
+ * A quote starts a quoted field only at the beginning of a field, a quote inside a quoted field is written as two quotes,
+ * and an escape character, if any, makes the next character literal. Line breaks inside quoted fields do not end the row.
+ */
+class RowScanner {
+
+    final MappedFile file;
+    final byte separator;
+    final byte quote;
+    final byte escape;
+    final boolean hasEscape;
+
+    RowScanner(MappedFile file, char separator, char quote, Character escape) {
+        this.file = file;
+        this.separator = (byte) separator;
+        this.quote = (byte) quote;
+        this.hasEscape = escape != null;
+        this.escape = hasEscape ? (byte) escape.charValue() : 0;
+    }
+
+    /**
+     * @return identifies the row rules, so an index built with other rules is not used
+     */
+    long format() {
+        return (separator & 0xFF) | (quote & 0xFF) << 8 | (long) (escape & 0xFF) << 16 | (hasEscape ? 1L << 24 : 0);
+    }
+
+    /**
+     * @return position after the row starting at the given position
+     */
+    long nextRow(long position) {
+        long size = file.size();
+        boolean fieldStart = true;
+        while (position < size) {
+            byte b = file.get(position++);
+            if (b == quote && fieldStart) {
+                while (position < size) {
+                    byte q = file.get(position++);
+                    if (hasEscape && q == escape) {
+                        position++;
+                    } else if (q == quote) {
+                        if (position < size && file.get(position) == quote)
+                            position++;
+                        else
+                            break;
+                    }
+                }
+                fieldStart = false;
+            } else if (b == separator) {
+                fieldStart = true;
+            } else if (b == '\n') {
+                return position;
+            } else {
+                if (hasEscape && b == escape)
+                    position++;
+                fieldStart = false;
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Service(name = "csv", metadata = "enabled=jars.enabled")
+public class CSVFileTransmuteJar
+        implements BatchTransmuteJar {
+
+    @Override
+    public BatchTransmute newBatchTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return (flux, context) ->
+        {
+            URI fileUrl = jarConfiguration.getURI(JarContext.resultUrl).orElse(null);
+
+            if (fileUrl == null) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not find file"));
+            }
+
+            if (fileUrl.getScheme().equals("file")) {
+                new File(fileUrl).getParentFile().mkdirs();
+            }
+
+            try {
+                WritableByteChannel channel = openChannel(fileUrl, jarConfiguration.getBoolean("gzip").orElse(false));
+                CsvWriter writer = new CsvWriter(channel,
+                        jarConfiguration.getInteger("bufferSize").orElse(1024 * 1024),
+                        jarConfiguration.getString("separator").map(c -> c.charAt(0)).orElse(','),
+                        jarConfiguration.getString("quote").map(c -> c.charAt(0)).orElse('"'));
+                boolean headers = jarConfiguration.getBoolean("headers").orElse(true);
+                boolean flush = jarConfiguration.getBoolean("flush").orElse(true);
+                // Column order is fixed by configuration or by the first item, later items are written in that order
+                List<String> columns = new ArrayList<>(jarConfiguration.configuration().getListAs("columns", JsonNode::asText).orElse(Collections.emptyList()));
+                // Reused for every row once the columns are known
+                JsonNode[][] row = new JsonNode[1][];
+                boolean[] closed = new boolean[1];
+
+                return flux.<List<MetadataJsonNode<JsonNode>>>handle((batch, sink) ->
+                        {
+                            try {
+                                for (MetadataJsonNode<JsonNode> item : batch) {
+                                    JsonNode data = item.data();
+                                    if (row[0] == null) {
+                                        if (columns.isEmpty() && data instanceof ObjectNode objectNode) {
+                                            objectNode.fieldNames().forEachRemaining(columns::add);
+                                        }
+                                        row[0] = new JsonNode[columns.size()];
+                                        if (headers && !columns.isEmpty()) {
+                                            writer.writeRow(columns);
+                                        }
+                                    }
+
+                                    if (data instanceof ObjectNode objectNode && !columns.isEmpty()) {
+                                        JsonNode[] fields = row[0];
+                                        for (int i = 0; i < fields.length; i++) {
+                                            fields[i] = objectNode.get(columns.get(i));
+                                        }
+                                        writer.writeRow(fields);
+                                    } else if (data instanceof ArrayNode arrayNode) {
+                                        writer.writeRow(arrayNode);
+                                    } else {
+                                        writer.writeRow(Collections.singletonList(data));
+                                    }
+                                }
+                                if (flush) {
+                                    writer.flush();
+                                }
+                                sink.next(batch);
+                            } catch (IOException e) {
+                                sink.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write CSV file", e));
+                            }
+                        })
+                        // The buffer and any gzip trailer have to be written before completion is signalled
+                        .concatWith(Flux.defer(() ->
+                        {
+                            closed[0] = true;
+                            try (channel) {
+                                writer.flush();
+                                return Flux.empty();
+                            } catch (IOException e) {
+                                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write CSV file", e));
+                            }
+                        }))
+                        .doFinally(signal ->
+                        {
+                            // Cancelled or failed, so release the file
+                            if (!closed[0]) {
+                                try {
+                                    channel.close();
+                                } catch (IOException e) {
+                                    // Ignore
+                                }
+                            }
+                        });
+            } catch (Throwable e) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write CSV file", e));
+            }
+        };
+    }
+
+    private WritableByteChannel openChannel(URI fileUrl, boolean gzip) throws IOException {
+        if (fileUrl.getScheme().equals("file")) {
+            FileChannel fileChannel = FileChannel.open(new File(fileUrl).getAbsoluteFile().toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return gzip
+                    ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fileChannel), 64 * 1024))
+                    : fileChannel;
+        } else {
+            OutputStream outputStream = fileUrl.toURL().openConnection().getOutputStream();
+            return Channels.newChannel(gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.csv.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes CSV rows as UTF-8 straight into a direct buffer, which is written to the channel when full or flushed.
+ * Fields are quoted only if they contain the separator, the quote or a line break.
+ */
+class CsvWriter {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final char separator;
+    private final char quote;
+
+    CsvWriter(WritableByteChannel channel, int bufferSize, char separator, char quote) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.separator = separator;
+        this.quote = quote;
+    }
+
+    void writeRow(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0)
+                writeChar(separator);
+            writeField(fields.get(i));
+        }
+        writeChar('\n');
+    }
+
+    void writeRow(JsonNode[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0)
+                writeChar(separator);
+            writeField(fields[i]);
+        }
+        writeChar('\n');
+    }
+
+    void writeRow(Iterable<JsonNode> fields) throws IOException {
+        boolean first = true;
+        for (JsonNode field : fields) {
+            if (!first)
+                writeChar(separator);
+            writeField(field);
+            first = false;
+        }
+        writeChar('\n');
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeField(JsonNode value) throws IOException {
+        if (value == null || value.isNull() || value.isMissingNode())
+            return;
+        writeField(value.isValueNode() ? value.asText() : value.toString());
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quoted = needsQuotes(value);
+        if (quoted)
+            writeChar(quote);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == quote && quoted)
+                writeChar(quote);
+            if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                writeChar(c);
+            }
+        }
+        if (quoted)
+            writeChar(quote);
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == quote || c == '\n' || c == '\r')
+                return true;
+        }
+        return false;
+    }
+
+    private void writeChar(char c) throws IOException {
+        if (buffer.remaining() < 3)
+            flush();
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (buffer.remaining() < 4)
+            flush();
+        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+    }
+}
@@ -15,10 +15,13 @@
  */
 module xorcery.alchemy.file.csv {
     exports dev.xorcery.alchemy.file.csv.source;
+    exports dev.xorcery.alchemy.file.csv.transmute;
 
     requires xorcery.reactivestreams.extras;
     requires com.opencsv;
     requires xorcery.alchemy.jar;
+    requires xorcery.alchemy.crucible;
     requires xorcery.reactivestreams.api;
     requires org.glassfish.hk2.api;
+    requires jakarta.inject;
 }
\ No newline at end of file
@@ -16,10 +16,12 @@
 package dev.xorcery.alchemy.file.excel.source;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
 import dev.xorcery.alchemy.jar.*;
 import dev.xorcery.configuration.Configuration;
 import dev.xorcery.metadata.Metadata;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import jakarta.inject.Inject;
 import org.dhatim.fastexcel.reader.ReadableWorkbook;
 import org.dhatim.fastexcel.reader.ReadingOptions;
 import org.dhatim.fastexcel.reader.Row;
@@ -27,7 +29,6 @@ import org.dhatim.fastexcel.reader.Sheet;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -42,7 +43,12 @@ import java.util.concurrent.Callable;
 public class ExcelSourceJar
         implements SourceJar
 {
-    private static final Scheduler scheduler = Schedulers.newSingle("Excel");
+    private final Scheduler scheduler;
+
+    @Inject
+    public ExcelSourceJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
 
     @Override
     public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
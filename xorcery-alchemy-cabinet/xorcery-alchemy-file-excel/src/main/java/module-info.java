@@ -19,6 +19,7 @@ module xorcery.alchemy.file.excel {
     exports dev.xorcery.alchemy.file.excel.transmute;
 
     requires xorcery.alchemy.jar;
+    requires xorcery.alchemy.crucible;
     requires org.dhatim.fastexcel;
     requires xorcery.reactivestreams.extras;
     requires xorcery.reactivestreams.api;
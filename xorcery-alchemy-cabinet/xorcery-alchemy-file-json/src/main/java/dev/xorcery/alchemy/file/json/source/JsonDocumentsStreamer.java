@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.Disposable;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads a stream of JSON documents on request, one item per document, where a top-level array is split into its
+ * elements. Only the structure is scanned, tracking strings and nesting depth to find where each element ends, and
+ * the bytes of each element are then parsed with the configured parser, so a large array is never held in memory.
+ */
+class JsonDocumentsStreamer
+        implements Disposable {
+
+    private final FluxSink<? super MetadataJsonNode<JsonNode>> sink;
+    private final InputStream in;
+    private final JsonLineParser parser;
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferPosition;
+    private int bufferLimit;
+    private byte[] element = new byte[1024];
+    private int elementLength;
+    private boolean inArray;
+
+    JsonDocumentsStreamer(FluxSink<? super MetadataJsonNode<JsonNode>> sink, InputStream in, JsonLineParser parser) {
+        this.sink = sink;
+        this.in = in;
+        this.parser = parser;
+    }
+
+    public void request(long request) {
+        try {
+            while (request > 0) {
+                if (!nextElement()) {
+                    sink.complete();
+                    return;
+                }
+
+                JsonNode json = parser.parse(element, 0, elementLength);
+                sink.next(new MetadataJsonNode<>(new Metadata.Builder()
+                        .add(StandardMetadata.timestamp, System.currentTimeMillis())
+                        .build(), json));
+                request--;
+            }
+        } catch (Throwable e) {
+            sink.error(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * @return false at the end of the stream
+     */
+    private boolean nextElement() throws IOException {
+        elementLength = 0;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean scalar = false;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                int read = in.read(buffer);
+                if (read == -1) {
+                    if (depth > 0 || inString || (inArray && !scalar))
+                        throw new IOException("Unexpected end of JSON input");
+                    return elementLength > 0;
+                }
+                bufferPosition = 0;
+                bufferLimit = read;
+            }
+
+            byte b = buffer[bufferPosition];
+            if (elementLength == 0) {
+                // Between elements
+                bufferPosition++;
+                if (isWhitespace(b) || (inArray && b == ','))
+                    continue;
+                if (inArray && b == ']') {
+                    inArray = false;
+                    continue;
+                }
+                if (!inArray && b == '[') {
+                    inArray = true;
+                    continue;
+                }
+                append(b);
+                if (b == '"')
+                    inString = true;
+                else if (b == '{' || b == '[')
+                    depth = 1;
+                else
+                    scalar = true;
+            } else if (inString) {
+                bufferPosition++;
+                append(b);
+                if (escaped)
+                    escaped = false;
+                else if (b == '\\')
+                    escaped = true;
+                else if (b == '"') {
+                    inString = false;
+                    if (depth == 0)
+                        return true;
+                }
+            } else if (scalar) {
+                // Numbers and literals end at the next whitespace or structural character, which is left for the next element
+                if (isWhitespace(b) || b == ',' || b == ']' || b == '}' || b == '[' || b == '{' || b == '"')
+                    return true;
+                bufferPosition++;
+                append(b);
+            } else {
+                bufferPosition++;
+                append(b);
+                if (b == '"')
+                    inString = true;
+                else if (b == '{' || b == '[')
+                    depth++;
+                else if ((b == '}' || b == ']') && --depth == 0)
+                    return true;
+            }
+        }
+    }
+
+    private void append(byte b) {
+        if (elementLength == element.length)
+            element = Arrays.copyOf(element, element.length * 2);
+        element[elementLength++] = b;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
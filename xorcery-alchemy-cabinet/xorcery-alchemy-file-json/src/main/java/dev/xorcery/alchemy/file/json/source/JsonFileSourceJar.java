@@ -16,25 +16,56 @@
 package dev.xorcery.alchemy.file.json.source;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import dev.xorcery.alchemy.jar.JarConfiguration;
-import dev.xorcery.alchemy.jar.JarContext;
-import dev.xorcery.alchemy.jar.SourceJar;
-import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.alchemy.crucible.FollowInputStream;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
+import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.collections.Element;
 import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.ContextViewElement;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import dev.xorcery.reactivestreams.api.ReactiveStreamsContext;
 import dev.xorcery.reactivestreams.extras.publishers.JsonPublisher;
 import dev.xorcery.reactivestreams.extras.publishers.ResourcePublisherContext;
+import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
 
 @Service(name = "json", metadata = "enabled=jars.enabled")
 public class JsonFileSourceJar
         implements SourceJar {
 
+    private final Scheduler scheduler;
+    private final ObjectReader reader = new JsonMapper().findAndRegisterModules().reader();
+
+    @Inject
+    public JsonFileSourceJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
+
     @Override
     public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        boolean follow = jarConfiguration.getBoolean("follow").orElse(false);
+        if (jarConfiguration.getBoolean("lines").orElse(false)) {
+            return newLinesSource(jarConfiguration, transmutationConfiguration, follow);
+        } else if (follow) {
+            return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Following requires lines: true"));
+        } else if (jarConfiguration.getString("parser").orElse("jackson").equals("simdjson")) {
+            return newDocumentsSource(jarConfiguration);
+        }
+
         return Flux.from(new JsonPublisher<JsonNode>(JsonNode.class))
                 .contextCapture()
                 .contextWrite(context ->
@@ -47,4 +78,112 @@ public class JsonFileSourceJar
                     return new MetadataJsonNode<>(new Metadata(metadata), json);
                 });
     }
+
+    /**
+     * JSON documents, where top-level arrays are split into their elements by a structural scan, and each element
+     * is parsed with the configured parser.
+     */
+    private Flux<MetadataJsonNode<JsonNode>> newDocumentsSource(JarConfiguration jarConfiguration) {
+        try {
+            Object sourceUrl = jarConfiguration.get(JarContext.sourceUrl)
+                    .orElseThrow(Element.missing(JarContext.sourceUrl));
+            URL jsonResource = sourceUrl instanceof URL url ? url : new URL(sourceUrl.toString());
+            Supplier<JsonLineParser> parserFactory = JsonLineParser.of(jarConfiguration.getString("parser").orElse("jackson"), reader);
+            return Flux.<MetadataJsonNode<JsonNode>>create(sink ->
+            {
+                try {
+                    JsonDocumentsStreamer streamer = new JsonDocumentsStreamer(sink, jsonResource.openStream(), parserFactory.get());
+                    sink.onDispose(streamer);
+                    sink.onRequest(streamer::request);
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            }).subscribeOn(scheduler, true);
+        } catch (Throwable e) {
+            return Flux.error(e);
+        }
+    }
+
+    /**
+     * JSON Lines, where streamPosition is the byte offset of the line. Resuming seeks to the offset of the last
+     * processed line and continues after it. Followed files also have the identity of the file in streamFile, and
+     * if that is not the file at the path any more, the offset is from a rotated file and the file is read from the start. Files that are not followed are memory mapped and parsed in parallel.
+     * Lines are parsed with the configured parser, jackson or simdjson.
+     */
+    private Flux<MetadataJsonNode<JsonNode>> newLinesSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration, boolean follow) {
+        try {
+            Object sourceUrl = jarConfiguration.get(JarContext.sourceUrl)
+                    .orElseThrow(Element.missing(JarContext.sourceUrl));
+            URL jsonResource = sourceUrl instanceof URL url ? url : new URL(sourceUrl.toString());
+            String jsonResourceUrl = jsonResource.toExternalForm();
+            boolean file = jsonResource.getProtocol().equals("file");
+            if (follow && !file) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Following requires a file: sourceUrl"));
+            }
+            Supplier<JsonLineParser> parserFactory = JsonLineParser.of(jarConfiguration.getString("parser").orElse("jackson"), reader);
+            if (file && !follow) {
+                return newMappedLinesSource(jarConfiguration, Path.of(jsonResource.toURI()), jsonResourceUrl, parserFactory);
+            }
+
+            return Flux.<MetadataJsonNode<JsonNode>>create(sink ->
+            {
+                try {
+                    ContextViewElement context = new ContextViewElement(sink.contextView());
+                    long offset = context.getLong(ReactiveStreamsContext.streamPosition).orElse(-1L);
+                    InputStream in;
+                    long start;
+                    boolean skipLine;
+                    if (follow) {
+                        Duration followDelay = jarConfiguration.getString("followDelay").map(delay -> Duration.parse("PT" + delay)).orElse(Duration.ofSeconds(1));
+                        Path path = Path.of(jsonResource.toURI());
+                        // Offsets are per file, so an offset from a rotated file means the current file is read from the start.
+                        // This is also the case if the file is shorter than the offset
+                        String streamFile = context.getString(JarContext.streamFile).orElse(null);
+                        boolean sameFile = streamFile == null || streamFile.equals(FollowInputStream.getFileId(path));
+                        FollowInputStream followStream = new FollowInputStream(path, sameFile ? Math.max(offset, 0) : 0, false, followDelay);
+                        start = followStream.getPosition();
+                        skipLine = sameFile && offset >= 0 && start == offset;
+                        in = followStream;
+                    } else {
+                        in = jsonResource.openStream();
+                        if (offset > 0) {
+                            try {
+                                in.skipNBytes(offset);
+                            } catch (EOFException e) {
+                                in.close();
+                                sink.complete();
+                                return;
+                            }
+                        }
+                        start = Math.max(offset, 0);
+                        skipLine = offset >= 0;
+                    }
+
+                    JsonLinesStreamer streamer = new JsonLinesStreamer(sink, in, parserFactory.get(), jsonResourceUrl, start, skipLine);
+                    sink.onDispose(streamer);
+                    sink.onRequest(streamer::request);
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            }).subscribeOn(scheduler, true);
+        } catch (Throwable e) {
+            return Flux.error(e);
+        }
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> newMappedLinesSource(JarConfiguration jarConfiguration, Path jsonPath, String jsonResourceUrl, Supplier<JsonLineParser> parserFactory) {
+        int parallelism = jarConfiguration.getInteger("parallelism")
+                .filter(p -> p > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        return Flux.deferContextual(context ->
+        {
+            try {
+                long offset = new ContextViewElement(context)
+                        .getLong(ReactiveStreamsContext.streamPosition).orElse(-1L);
+                return new JsonLinesParser(jsonPath, jsonResourceUrl, parserFactory).parse(offset, parallelism, Schedulers.parallel());
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+        });
+    }
 }
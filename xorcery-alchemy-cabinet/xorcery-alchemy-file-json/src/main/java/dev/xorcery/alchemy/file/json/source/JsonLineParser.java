@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.logging.log4j.LogManager;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Parses one JSON document from a range of bytes, such as a line in JSON Lines. Instances are not thread safe.
+ */
+interface JsonLineParser {
+
+    JsonNode parse(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * @param name jackson or simdjson. If simdjson is not available on this JVM, such as when jdk.incubator.vector
+     *             is not added or the CPU has no supported vector width, Jackson is used instead.
+     */
+    static Supplier<JsonLineParser> of(String name, ObjectReader reader) {
+        Supplier<JsonLineParser> jackson = () -> reader::readTree;
+        return switch (name) {
+            case "jackson" -> jackson;
+            case "simdjson" -> {
+                Throwable unavailable;
+                try {
+                    unavailable = SimdJsonLineParser.unavailableCause();
+                } catch (LinkageError e) {
+                    unavailable = e;
+                }
+                if (unavailable == null)
+                    yield () -> new SimdJsonLineParser(reader);
+                LogManager.getLogger(JsonLineParser.class).warn("simdjson parser is not available, using jackson", unavailable);
+                yield jackson;
+            }
+            default -> throw new IllegalArgumentException("Unknown JSON parser: " + name);
+        };
+    }
+}
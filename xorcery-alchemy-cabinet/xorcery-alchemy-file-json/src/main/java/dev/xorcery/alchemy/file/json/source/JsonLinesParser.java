@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.crucible.MappedFile;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * JSON Lines parser for memory mapped files.
+ * <p>
+ * The file is split into chunks that end at line boundaries. Chunks are copied out of the mapping and parsed in parallel,
+ * and emitted in file order with streamPosition being the byte offset of the line.
+ */
+class JsonLinesParser {
+
+    static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final MappedFile file;
+    private final String sourceUrl;
+    private final ThreadLocal<JsonLineParser> parsers;
+
+    JsonLinesParser(Path path, String sourceUrl, Supplier<JsonLineParser> parserFactory) throws IOException {
+        this.file = new MappedFile(path);
+        this.sourceUrl = sourceUrl;
+        // Parsers are reused by chunks parsed on the same thread
+        this.parsers = ThreadLocal.withInitial(parserFactory);
+    }
+
+    /**
+     * @param offset streamPosition of the last processed line, or -1 to start from the beginning
+     */
+    Flux<MetadataJsonNode<JsonNode>> parse(long offset, int parallelism, Scheduler scheduler) {
+        return Flux.<Chunk, long[]>generate(() -> new long[]{offset < 0 ? 0 : nextLine(offset)}, (position, sink) ->
+                {
+                    long start = position[0];
+                    if (start >= file.size()) {
+                        sink.complete();
+                        return position;
+                    }
+                    long end = start + CHUNK_SIZE >= file.size() ? file.size() : nextLine(start + CHUNK_SIZE - 1);
+                    if (end - start > Integer.MAX_VALUE - 8) {
+                        sink.error(new IOException("Line at " + start + " is too long"));
+                        return position;
+                    }
+                    position[0] = end;
+                    sink.next(new Chunk(start, (int) (end - start)));
+                    return position;
+                })
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> parse(chunk)).subscribeOn(scheduler), parallelism, 1)
+                .flatMapIterable(Function.identity());
+    }
+
+    private List<MetadataJsonNode<JsonNode>> parse(Chunk chunk) throws IOException {
+        byte[] bytes = new byte[chunk.length()];
+        file.get(chunk.start(), bytes, 0, bytes.length);
+        JsonLineParser parser = parsers.get();
+        List<MetadataJsonNode<JsonNode>> items = new ArrayList<>();
+        long timestamp = System.currentTimeMillis();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (!isBlank(bytes, lineStart, lineEnd)) {
+                JsonNode json = parser.parse(bytes, lineStart, lineEnd - lineStart);
+                items.add(new MetadataJsonNode<>(new Metadata.Builder()
+                        .add(StandardMetadata.sourceUrl, sourceUrl)
+                        .add(StandardMetadata.timestamp, timestamp)
+                        .add(StandardMetadata.streamPosition, chunk.start() + lineStart)
+                        .build(), json));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return items;
+    }
+
+    /**
+     * @return position after the next line break at or after position, or the end of the file
+     */
+    private long nextLine(long position) {
+        long size = file.size();
+        while (position < size) {
+            if (file.get(position++) == '\n')
+                return position;
+        }
+        return size;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r')
+                return false;
+        }
+        return true;
+    }
+
+    record Chunk(long start, int length) {
+    }
+}
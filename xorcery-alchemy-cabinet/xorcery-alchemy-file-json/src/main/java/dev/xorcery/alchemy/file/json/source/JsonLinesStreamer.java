@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.crucible.FollowInputStream;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.Disposable;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads JSON Lines on request, one item per non-blank line. The streamPosition of an item is the byte offset
+ * of its line in the file it was read from, so when a followed file is rotated the offsets start over at 0.
+ * Items read from a followed file also get the identity of that file as streamFile, so a resume can tell
+ * whether the offset still belongs to the file at the path.
+ */
+class JsonLinesStreamer
+        implements Disposable {
+
+    private final FluxSink<? super MetadataJsonNode<JsonNode>> sink;
+    private final InputStream in;
+    private final JsonLineParser parser;
+    private final String sourceUrl;
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferPosition;
+    private int bufferLimit;
+    private byte[] line = new byte[1024];
+    private int lineLength;
+    private long offset;
+    private long rotations;
+    private String fileId;
+    private long lineOffset;
+    private String lineFile;
+
+    /**
+     * @param offset    byte offset of the first byte read from the stream
+     * @param skipLine  skip the first line, which is the one the stream was resumed at
+     */
+    JsonLinesStreamer(FluxSink<? super MetadataJsonNode<JsonNode>> sink, InputStream in, JsonLineParser parser, String sourceUrl, long offset, boolean skipLine) {
+        this.sink = sink;
+        this.in = in;
+        this.parser = parser;
+        this.sourceUrl = sourceUrl;
+        this.offset = offset;
+        if (in instanceof FollowInputStream follow) {
+            this.rotations = follow.getRotations();
+            this.fileId = follow.getFileId();
+        }
+
+        if (skipLine) {
+            try {
+                readLine();
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        }
+    }
+
+    public void request(long request) {
+        try {
+            while (request > 0) {
+                if (!readLine()) {
+                    sink.complete();
+                    return;
+                }
+                if (isBlank())
+                    continue;
+
+                JsonNode json = parser.parse(line, 0, lineLength);
+                Metadata.Builder metadata = new Metadata.Builder()
+                        .add(StandardMetadata.sourceUrl, sourceUrl)
+                        .add(StandardMetadata.timestamp, System.currentTimeMillis())
+                        .add(StandardMetadata.streamPosition, lineOffset);
+                if (lineFile != null)
+                    metadata.add(StandardMetadata.streamFile, lineFile);
+                sink.next(new MetadataJsonNode<>(metadata.build(), json));
+                request--;
+            }
+        } catch (Throwable e) {
+            sink.error(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * @return false at the end of the stream
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        lineOffset = offset;
+        lineFile = fileId;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                int read = in.read(buffer);
+                if (read == -1)
+                    return lineLength > 0;
+                bufferPosition = 0;
+                bufferLimit = read;
+
+                if (in instanceof FollowInputStream follow && follow.getRotations() != rotations) {
+                    // Read from a new file, where offsets start over
+                    rotations = follow.getRotations();
+                    fileId = follow.getFileId();
+                    offset = follow.getPosition() - read;
+                    // The last line of the previous file had no line end
+                    if (lineLength > 0)
+                        return true;
+                    lineOffset = offset;
+                    lineFile = fileId;
+                }
+            }
+
+            int end = bufferPosition;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+            append(bufferPosition, end - bufferPosition);
+            boolean found = end < bufferLimit;
+            int consumed = end - bufferPosition + (found ? 1 : 0);
+            offset += consumed;
+            bufferPosition += consumed;
+            if (found)
+                return true;
+        }
+    }
+
+    private void append(int from, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, from, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private boolean isBlank() {
+        for (int i = 0; i < lineLength; i++) {
+            byte b = line[i];
+            if (b != ' ' && b != '\t' && b != '\r')
+                return false;
+        }
+        return true;
+    }
+}
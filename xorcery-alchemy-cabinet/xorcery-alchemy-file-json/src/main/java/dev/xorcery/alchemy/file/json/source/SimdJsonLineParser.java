@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.simdjson.JsonValue;
+import org.simdjson.SimdJsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON parser backed by simdjson-java, which uses the Vector API, turning its result into a Jackson tree.
+ * Documents larger than the parser capacity, and anything simdjson rejects, are parsed with Jackson,
+ * which also gives the same error messages as the Jackson parser for invalid input. Documents simdjson rejects are
+ * counted, and the first one is logged as a warning.
+ */
+class SimdJsonLineParser
+        implements JsonLineParser {
+
+    static final int CAPACITY = 1024 * 1024;
+    static final int MAX_DEPTH = 64;
+
+    private static final Logger logger = LogManager.getLogger(SimdJsonLineParser.class);
+    private static final Throwable UNAVAILABLE_CAUSE = probe();
+    private static final LongAdder fallbacks = new LongAdder();
+
+    private final SimdJsonParser parser = new SimdJsonParser(CAPACITY, MAX_DEPTH);
+    private final ObjectReader fallback;
+    private byte[] input = new byte[4096];
+
+    SimdJsonLineParser(ObjectReader fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return why simdjson can not be used on this JVM, or null if it can
+     */
+    static Throwable unavailableCause() {
+        return UNAVAILABLE_CAUSE;
+    }
+
+    /**
+     * @return number of documents simdjson rejected, which were parsed with Jackson instead
+     */
+    static long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public JsonNode parse(byte[] bytes, int offset, int length) throws IOException {
+        if (length > CAPACITY)
+            return fallback.readTree(bytes, offset, length);
+
+        // simdjson parses from the start of the array
+        byte[] document = bytes;
+        if (offset != 0) {
+            if (input.length < length)
+                input = new byte[Math.max(input.length * 2, length)];
+            System.arraycopy(bytes, offset, input, 0, length);
+            document = input;
+        }
+        try {
+            return toJsonNode(parser.parse(document, length));
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            if (fallbacks.sum() == 1)
+                logger.warn("simdjson could not parse a document, parsing it with jackson. Later fallbacks are logged at debug level", e);
+            else
+                logger.debug("simdjson could not parse a document, parsing it with jackson", e);
+            return fallback.readTree(bytes, offset, length);
+        }
+    }
+
+    private static JsonNode toJsonNode(JsonValue value) {
+        if (value.isObject()) {
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonValue>> fields = value.objectIterator();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonValue> field = fields.next();
+                object.set(field.getKey(), toJsonNode(field.getValue()));
+            }
+            return object;
+        } else if (value.isArray()) {
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            Iterator<JsonValue> elements = value.arrayIterator();
+            while (elements.hasNext()) {
+                array.add(toJsonNode(elements.next()));
+            }
+            return array;
+        } else if (value.isString()) {
+            return TextNode.valueOf(value.asString());
+        } else if (value.isLong()) {
+            // Same node types as Jackson
+            long number = value.asLong();
+            return (int) number == number ? IntNode.valueOf((int) number) : LongNode.valueOf(number);
+        } else if (value.isDouble()) {
+            return DoubleNode.valueOf(value.asDouble());
+        } else if (value.isBoolean()) {
+            return BooleanNode.valueOf(value.asBoolean());
+        } else if (value.isNull()) {
+            return NullNode.getInstance();
+        }
+        throw new UnsupportedOperationException("Unsupported JSON value: " + value);
+    }
+
+    private static Throwable probe() {
+        try {
+            byte[] probe = "{\"probe\":[1,2.5,\"x\",true,null]}".getBytes(StandardCharsets.UTF_8);
+            toJsonNode(new SimdJsonParser(probe.length, MAX_DEPTH).parse(probe, probe.length));
+            return null;
+        } catch (Throwable e) {
+            return e;
+        }
+    }
+}
@@ -16,11 +16,13 @@
 package dev.xorcery.alchemy.file.json.transmute;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
 
@@ -32,10 +34,10 @@ import java.net.URI;
 
 @Service(name = "json", metadata = "enabled=jars.enabled")
 public class JsonFileTransmuteJar
-        implements TransmuteJar {
+        implements BatchTransmuteJar {
 
     @Override
-    public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+    public BatchTransmute newBatchTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
         return (flux, context) ->
         {
             URI fileUrl = jarConfiguration.getURI(JarContext.resultUrl).orElse(null);
@@ -58,25 +60,33 @@ public class JsonFileTransmuteJar
                         .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
                         .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
                         .enable(SerializationFeature.WRITE_DATES_WITH_CONTEXT_TIME_ZONE)
-                        .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+                        .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+                        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                // One generator for the whole file, flushed once per batch
+                JsonGenerator generator = mapper.createGenerator(outputStream);
+                generator.setRootValueSeparator(null);
                 return flux.doOnTerminate(() ->
                 {
                     try {
+                        generator.close();
                         outputStream.close();
                     } catch (IOException e) {
                         // Ignore
                     }
-                }).handle((item, sink) ->
+                }).handle((batch, sink) ->
                 {
                     try {
-                        mapper.writeValue(outputStream, item);
-                        sink.next(item);
+                        for (MetadataJsonNode<JsonNode> item : batch) {
+                            mapper.writeValue(generator, item);
+                        }
+                        generator.flush();
+                        sink.next(batch);
                     } catch (IOException e) {
                         sink.error(e);
                     }
                 });
             } catch (Throwable e) {
-                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write YAML file", e));
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write JSON file", e));
             }
         };
     }
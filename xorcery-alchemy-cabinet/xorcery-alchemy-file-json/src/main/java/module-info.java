@@ -18,9 +18,12 @@ module xorcery.alchemy.file.json {
     exports dev.xorcery.alchemy.file.json.transmute;
 
     requires xorcery.alchemy.jar;
+    requires xorcery.alchemy.crucible;
     requires xorcery.reactivestreams.extras;
 
     requires xorcery.reactivestreams.api;
+    requires org.simdjson;
+    requires org.apache.logging.log4j;
     requires org.glassfish.hk2.api;
     requires jakarta.inject;
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.json.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The json source tests only compare results, which are the same when simdjson silently falls back to jackson,
+ * so this checks that simdjson is actually used.
+ */
+public class SimdJsonLineParserTest {
+
+    private static final ObjectReader reader = new JsonMapper().reader();
+
+    private static final List<String> DOCUMENTS = List.of(
+            "{\"id\":1,\"name\":\"Name 1\",\"amount\":1.25,\"tags\":[\"a\",\"b\"],\"address\":{\"zip\":1000}}",
+            "{\"id\":4000000000,\"active\":true,\"note\":null,\"nested\":[[1,2],{\"x\":\"\\u00e9\"}]}",
+            "[1,2.5,\"x\",false]");
+
+    @Test
+    public void testAvailable() {
+        Assertions.assertNull(SimdJsonLineParser.unavailableCause(), "simdjson is not available, is jdk.incubator.vector added?");
+    }
+
+    @Test
+    public void testLinesWithoutFallback() throws IOException {
+        Assertions.assertNull(SimdJsonLineParser.unavailableCause());
+        long fallbacks = SimdJsonLineParser.getFallbacks();
+
+        SimdJsonLineParser parser = new SimdJsonLineParser(reader);
+        for (String document : DOCUMENTS) {
+            // Lines are parsed from a range within a larger buffer
+            byte[] bytes = ("\n" + document + "\n").getBytes(StandardCharsets.UTF_8);
+            Assertions.assertEquals(reader.readTree(document), parser.parse(bytes, 1, bytes.length - 2), document);
+        }
+        Assertions.assertEquals(fallbacks, SimdJsonLineParser.getFallbacks());
+    }
+
+    @Test
+    public void testArrayWithoutFallback() throws IOException {
+        Assertions.assertNull(SimdJsonLineParser.unavailableCause());
+        long fallbacks = SimdJsonLineParser.getFallbacks();
+
+        byte[] array = ("[" + String.join(",\n", DOCUMENTS) + "]").getBytes(StandardCharsets.UTF_8);
+        List<JsonNode> elements = Flux.<MetadataJsonNode<JsonNode>>create(sink ->
+                {
+                    JsonDocumentsStreamer streamer = new JsonDocumentsStreamer(sink, new ByteArrayInputStream(array), new SimdJsonLineParser(reader));
+                    sink.onDispose(streamer);
+                    sink.onRequest(streamer::request);
+                })
+                .map(MetadataJsonNode::data)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        List<JsonNode> expected = new ArrayList<>();
+        reader.readTree(array).forEach(expected::add);
+        Assertions.assertEquals(expected, elements);
+        Assertions.assertEquals(fallbacks, SimdJsonLineParser.getFallbacks());
+    }
+}
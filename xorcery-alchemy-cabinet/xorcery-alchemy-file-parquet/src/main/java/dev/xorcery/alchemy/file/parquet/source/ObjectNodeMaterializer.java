@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.*;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Builds each record directly as an ObjectNode from the Parquet column readers.
+ * <p>
+ * Groups become objects, LIST groups and repeated fields become arrays, and MAP groups become objects keyed by the
+ * text of the key. Strings, enums and JSON columns become text, decimals become numbers, and dates, times and timestamps
+ * become ISO-8601 text. Dictionary encoded text columns share one node per dictionary entry.
+ */
+class ObjectNodeMaterializer
+        extends RecordMaterializer<ObjectNode> {
+
+    private final ObjectConverter root;
+
+    ObjectNodeMaterializer(MessageType schema) {
+        this.root = new ObjectConverter(schema, null);
+    }
+
+    @Override
+    public ObjectNode getCurrentRecord() {
+        return root.current;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+        return root;
+    }
+
+    private static Converter newConverter(Type type, Consumer<JsonNode> target) {
+        if (type.isPrimitive())
+            return new ValueConverter(type.asPrimitiveType(), target);
+
+        GroupType group = type.asGroupType();
+        LogicalTypeAnnotation annotation = group.getLogicalTypeAnnotation();
+        if (annotation instanceof LogicalTypeAnnotation.ListLogicalTypeAnnotation
+                && group.getFieldCount() == 1 && group.getType(0).isRepetition(Type.Repetition.REPEATED))
+            return new ListConverter(group, target);
+        if ((annotation instanceof LogicalTypeAnnotation.MapLogicalTypeAnnotation || annotation instanceof LogicalTypeAnnotation.MapKeyValueTypeAnnotation)
+                && group.getFieldCount() == 1 && !group.getType(0).isPrimitive() && group.getType(0).asGroupType().getFieldCount() == 2)
+            return new MapConverter(group, target);
+        return new ObjectConverter(group, target);
+    }
+
+    /**
+     * Repeated fields outside of LIST groups are collected into an array under the field name.
+     */
+    private static Converter newFieldConverter(Type field, ObjectConverter parent) {
+        String name = field.getName().intern();
+        if (field.isRepetition(Type.Repetition.REPEATED))
+            return newConverter(field, value -> parent.arrayField(name).add(value));
+        return newConverter(field, value -> parent.current.set(name, value));
+    }
+
+    private static class ObjectConverter
+            extends GroupConverter {
+
+        private final Consumer<JsonNode> target;
+        private final Converter[] converters;
+        private final String[] arrayFields;
+        ObjectNode current;
+
+        ObjectConverter(GroupType type, Consumer<JsonNode> target) {
+            this.target = target;
+            this.converters = new Converter[type.getFieldCount()];
+            this.arrayFields = new String[type.getFieldCount()];
+            for (int i = 0; i < converters.length; i++) {
+                converters[i] = newFieldConverter(type.getType(i), this);
+            }
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return converters[fieldIndex];
+        }
+
+        @Override
+        public void start() {
+            current = JsonNodeFactory.instance.objectNode();
+        }
+
+        @Override
+        public void end() {
+            if (target != null)
+                target.accept(current);
+        }
+
+        ArrayNode arrayField(String name) {
+            JsonNode array = current.get(name);
+            return array instanceof ArrayNode arrayNode ? arrayNode : current.putArray(name);
+        }
+    }
+
+    /**
+     * LIST groups, with one repeated group holding the element (3-level), or a repeated element directly (2-level).
+     */
+    private static class ListConverter
+            extends GroupConverter {
+
+        private final Consumer<JsonNode> target;
+        private final Converter repeated;
+        private ArrayNode current;
+
+        ListConverter(GroupType type, Consumer<JsonNode> target) {
+            this.target = target;
+            Type repeatedType = type.getType(0);
+            Consumer<JsonNode> add = value -> current.add(value);
+            if (repeatedType.isPrimitive() || repeatedType.asGroupType().getFieldCount() != 1) {
+                repeated = newConverter(repeatedType, add);
+            } else {
+                // A null optional element has no value, so add it as null when the repeated group ends
+                Converter element = newConverter(repeatedType.asGroupType().getType(0), add);
+                repeated = new GroupConverter() {
+                    private int size;
+
+                    @Override
+                    public Converter getConverter(int fieldIndex) {
+                        return element;
+                    }
+
+                    @Override
+                    public void start() {
+                        size = current.size();
+                    }
+
+                    @Override
+                    public void end() {
+                        if (current.size() == size)
+                            current.addNull();
+                    }
+                };
+            }
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return repeated;
+        }
+
+        @Override
+        public void start() {
+            current = JsonNodeFactory.instance.arrayNode();
+        }
+
+        @Override
+        public void end() {
+            target.accept(current);
+        }
+    }
+
+    private static class MapConverter
+            extends GroupConverter {
+
+        private final Consumer<JsonNode> target;
+        private final GroupConverter keyValue;
+        private ObjectNode current;
+        private JsonNode key;
+        private JsonNode value;
+
+        MapConverter(GroupType type, Consumer<JsonNode> target) {
+            this.target = target;
+            GroupType keyValueType = type.getType(0).asGroupType();
+            Converter keyConverter = newConverter(keyValueType.getType(0), node -> key = node);
+            Converter valueConverter = newConverter(keyValueType.getType(1), node -> value = node);
+            keyValue = new GroupConverter() {
+                @Override
+                public Converter getConverter(int fieldIndex) {
+                    return fieldIndex == 0 ? keyConverter : valueConverter;
+                }
+
+                @Override
+                public void start() {
+                    key = null;
+                    value = NullNode.getInstance();
+                }
+
+                @Override
+                public void end() {
+                    if (key != null)
+                        current.set(key.asText(), value);
+                }
+            };
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return keyValue;
+        }
+
+        @Override
+        public void start() {
+            current = JsonNodeFactory.instance.objectNode();
+        }
+
+        @Override
+        public void end() {
+            target.accept(current);
+        }
+    }
+
+    private static class ValueConverter
+            extends PrimitiveConverter {
+
+        private final Consumer<JsonNode> target;
+        private final LogicalTypeAnnotation annotation;
+        private final boolean text;
+        private JsonNode[] dictionary;
+
+        ValueConverter(PrimitiveType type, Consumer<JsonNode> target) {
+            this.target = target;
+            this.annotation = type.getLogicalTypeAnnotation();
+            this.text = annotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation
+                    || annotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation
+                    || annotation instanceof LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+        }
+
+        @Override
+        public boolean hasDictionarySupport() {
+            return text;
+        }
+
+        @Override
+        public void setDictionary(Dictionary dictionary) {
+            this.dictionary = new JsonNode[dictionary.getMaxId() + 1];
+            for (int i = 0; i < this.dictionary.length; i++) {
+                this.dictionary[i] = binary(dictionary.decodeToBinary(i));
+            }
+        }
+
+        @Override
+        public void addValueFromDictionary(int dictionaryId) {
+            target.accept(dictionary[dictionaryId]);
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            target.accept(binary(value));
+        }
+
+        @Override
+        public void addBoolean(boolean value) {
+            target.accept(BooleanNode.valueOf(value));
+        }
+
+        @Override
+        public void addDouble(double value) {
+            target.accept(DoubleNode.valueOf(value));
+        }
+
+        @Override
+        public void addFloat(float value) {
+            target.accept(FloatNode.valueOf(value));
+        }
+
+        @Override
+        public void addInt(int value) {
+            if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                target.accept(TextNode.valueOf(LocalDate.ofEpochDay(value).toString()));
+            } else if (annotation instanceof LogicalTypeAnnotation.TimeLogicalTypeAnnotation) {
+                target.accept(TextNode.valueOf(LocalTime.ofNanoOfDay(value * 1_000_000L).toString()));
+            } else if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal) {
+                target.accept(DecimalNode.valueOf(BigDecimal.valueOf(value, decimal.getScale())));
+            } else {
+                target.accept(IntNode.valueOf(value));
+            }
+        }
+
+        @Override
+        public void addLong(long value) {
+            if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation timestamp) {
+                target.accept(TextNode.valueOf(instant(value, timestamp.getUnit()).toString()));
+            } else if (annotation instanceof LogicalTypeAnnotation.TimeLogicalTypeAnnotation time) {
+                target.accept(TextNode.valueOf(LocalTime.ofNanoOfDay(nanos(value, time.getUnit())).toString()));
+            } else if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal) {
+                target.accept(DecimalNode.valueOf(BigDecimal.valueOf(value, decimal.getScale())));
+            } else {
+                target.accept(LongNode.valueOf(value));
+            }
+        }
+
+        private JsonNode binary(Binary value) {
+            if (text) {
+                return TextNode.valueOf(value.toStringUsingUTF8());
+            } else if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal) {
+                return DecimalNode.valueOf(new BigDecimal(new BigInteger(value.getBytes()), decimal.getScale()));
+            } else if (annotation instanceof LogicalTypeAnnotation.UUIDLogicalTypeAnnotation) {
+                ByteBuffer bytes = value.toByteBuffer();
+                return TextNode.valueOf(new UUID(bytes.getLong(), bytes.getLong()).toString());
+            }
+            return BinaryNode.valueOf(value.getBytes());
+        }
+
+        private static Instant instant(long value, LogicalTypeAnnotation.TimeUnit unit) {
+            return switch (unit) {
+                case MILLIS -> Instant.ofEpochMilli(value);
+                case MICROS -> Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000L), Math.floorMod(value, 1_000_000L) * 1_000L);
+                case NANOS -> Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000_000L), Math.floorMod(value, 1_000_000_000L));
+            };
+        }
+
+        private static long nanos(long value, LogicalTypeAnnotation.TimeUnit unit) {
+            return switch (unit) {
+                case MILLIS -> value * 1_000_000L;
+                case MICROS -> value * 1_000L;
+                case NANOS -> value;
+            };
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.source;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses filters of the form {@code field op value}, where op is one of ==, =, !=, &lt;, &lt;=, &gt; or &gt;=,
+ * into a Parquet FilterPredicate. Nested fields are written as dotted paths. Values are converted to the physical type
+ * of the column, dates and timestamps are given as ISO-8601 text, and text may be quoted. The value null
+ * can be used with == and != to match missing values.
+ * <p>
+ * Multiple filters are combined with AND.
+ */
+final class ParquetFilters {
+
+    private static final Pattern FILTER = Pattern.compile("\\s*([\\w.\\-]+)\\s*(==|!=|<=|>=|<|>|=)\\s*(.*?)\\s*");
+
+    record Filter(String[] path, String operator, String value) {
+    }
+
+    private ParquetFilters() {
+    }
+
+    static List<Filter> parse(List<String> filters) {
+        List<Filter> result = new ArrayList<>(filters.size());
+        for (String filter : filters) {
+            Matcher matcher = FILTER.matcher(filter);
+            if (!matcher.matches())
+                throw new IllegalArgumentException("Invalid filter, expected 'field op value': " + filter);
+            result.add(new Filter(matcher.group(1).split("\\."), matcher.group(2), matcher.group(3)));
+        }
+        return result;
+    }
+
+    static FilterPredicate toPredicate(List<Filter> filters, MessageType schema) {
+        FilterPredicate result = null;
+        for (Filter filter : filters) {
+            FilterPredicate predicate = toPredicate(filter, schema);
+            result = result == null ? predicate : FilterApi.and(result, predicate);
+        }
+        return result;
+    }
+
+    private static FilterPredicate toPredicate(Filter filter, MessageType schema) {
+        String column = String.join(".", filter.path());
+        if (!schema.containsPath(filter.path()))
+            throw new IllegalArgumentException("Unknown filter column: " + column);
+        Type type = schema.getType(filter.path());
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED))
+            throw new IllegalArgumentException("Filter column must be a non-repeated primitive: " + column);
+
+        PrimitiveType primitiveType = type.asPrimitiveType();
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        String text = unquote(filter.value());
+        boolean isNull = filter.value().equals("null");
+        if (isNull && !(filter.operator().equals("==") || filter.operator().equals("=") || filter.operator().equals("!=")))
+            throw new IllegalArgumentException("null can only be compared with == or !=: " + column);
+
+        if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation)
+            throw new IllegalArgumentException("Filters on decimal columns are not supported: " + column);
+
+        return switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32 -> compare(FilterApi.intColumn(column), filter.operator(), isNull ? null :
+                    annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation
+                            ? (int) LocalDate.parse(text).toEpochDay()
+                            : Integer.valueOf(text));
+            case INT64 -> compare(FilterApi.longColumn(column), filter.operator(), isNull ? null :
+                    annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation timestamp
+                            ? timestamp(Instant.parse(text), timestamp.getUnit())
+                            : Long.valueOf(text));
+            case FLOAT -> compare(FilterApi.floatColumn(column), filter.operator(), isNull ? null : Float.valueOf(text));
+            case DOUBLE -> compare(FilterApi.doubleColumn(column), filter.operator(), isNull ? null : Double.valueOf(text));
+            case BINARY, FIXED_LEN_BYTE_ARRAY -> compare(FilterApi.binaryColumn(column), filter.operator(), isNull ? null : Binary.fromString(text));
+            case BOOLEAN -> {
+                Operators.BooleanColumn booleanColumn = FilterApi.booleanColumn(column);
+                Boolean value = isNull ? null : Boolean.valueOf(text);
+                yield switch (filter.operator()) {
+                    case "==", "=" -> FilterApi.eq(booleanColumn, value);
+                    case "!=" -> FilterApi.notEq(booleanColumn, value);
+                    default ->
+                            throw new IllegalArgumentException("Boolean columns can only be compared with == or !=: " + column);
+                };
+            }
+            case INT96 -> throw new IllegalArgumentException("Filters on INT96 columns are not supported: " + column);
+        };
+    }
+
+    private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate compare(C column, String operator, T value) {
+        return switch (operator) {
+            case "==", "=" -> FilterApi.eq(column, value);
+            case "!=" -> FilterApi.notEq(column, value);
+            case "<" -> FilterApi.lt(column, value);
+            case "<=" -> FilterApi.ltEq(column, value);
+            case ">" -> FilterApi.gt(column, value);
+            case ">=" -> FilterApi.gtEq(column, value);
+            default -> throw new IllegalArgumentException("Unknown filter operator: " + operator);
+        };
+    }
+
+    private static long timestamp(Instant instant, LogicalTypeAnnotation.TimeUnit unit) {
+        return switch (unit) {
+            case MILLIS -> instant.toEpochMilli();
+            case MICROS -> Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000L);
+            case NANOS -> Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        };
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"") || value.startsWith("'") && value.endsWith("'")))
+            return value.substring(1, value.length() - 1);
+        return value;
+    }
+}
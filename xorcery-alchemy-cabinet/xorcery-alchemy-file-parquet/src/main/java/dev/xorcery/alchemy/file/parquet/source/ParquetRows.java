@@ -0,0 +1,230 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.source;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Reads the rows of a Parquet file as ObjectNodes, reading only the requested columns.
+ * <p>
+ * Filters are pushed down to the reader, so row groups are skipped using their statistics and dictionaries, and pages
+ * using the column indexes, before anything is decompressed. Rows in the remaining pages are filtered while being
+ * assembled. Columns only used by filters are read, but removed from the rows.
+ * <p>
+ * Each row group is read with its own {@link RowGroupReader}, so row groups can be read concurrently. Rows are
+ * identified by their index in the file, which is the row count of all preceding row groups plus the index in the row group.
+ */
+class ParquetRows {
+
+    private final Path file;
+    private final ParquetReadOptions options;
+    private final FilterCompat.Filter filter;
+    private final MessageType requestedSchema;
+    private final MessageColumnIO columnIO;
+    private final List<String[]> hidden;
+    private final List<RowGroup> rowGroups;
+
+    record RowGroup(int index, long rowIndexOffset, long rowCount) {
+    }
+
+    ParquetRows(Path file, List<String> columns, List<String> filters) throws IOException {
+        this.file = file;
+        List<ParquetFilters.Filter> parsedFilters = ParquetFilters.parse(filters);
+        try (ParquetFileReader footerReader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType fileSchema = footerReader.getFileMetaData().getSchema();
+            FilterPredicate predicate = ParquetFilters.toPredicate(parsedFilters, fileSchema);
+            this.filter = predicate == null ? FilterCompat.NOOP : FilterCompat.get(predicate);
+
+            List<String[]> requested = columns.stream().map(column -> column.split("\\.")).toList();
+            List<String[]> read = new ArrayList<>(requested);
+            List<String[]> hidden = new ArrayList<>();
+            if (!requested.isEmpty()) {
+                for (ParquetFilters.Filter parsedFilter : parsedFilters) {
+                    if (requested.stream().noneMatch(path -> isPrefix(path, parsedFilter.path()))) {
+                        read.add(parsedFilter.path());
+                        hidden.add(parsedFilter.path());
+                    }
+                }
+            }
+            this.hidden = hidden;
+            this.requestedSchema = project(fileSchema, read);
+            this.columnIO = new ColumnIOFactory().getColumnIO(requestedSchema, fileSchema);
+        }
+
+        this.options = ParquetReadOptions.builder()
+                .withRecordFilter(filter)
+                .useStatsFilter(true)
+                .useDictionaryFilter(true)
+                .useColumnIndexFilter(true)
+                .useRecordFilter(true)
+                .build();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file), options)) {
+            // Row group offsets come from all row groups in the footer, also the ones skipped by the filters
+            Map<BlockMetaData, Long> rowIndexOffsets = new IdentityHashMap<>();
+            long rowIndexOffset = 0;
+            for (BlockMetaData block : reader.getFooter().getBlocks()) {
+                rowIndexOffsets.put(block, rowIndexOffset);
+                rowIndexOffset += block.getRowCount();
+            }
+            List<BlockMetaData> blocks = reader.getRowGroups();
+            List<RowGroup> rowGroups = new ArrayList<>(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                BlockMetaData block = blocks.get(i);
+                rowGroups.add(new RowGroup(i, rowIndexOffsets.get(block), block.getRowCount()));
+            }
+            this.rowGroups = rowGroups;
+        }
+    }
+
+    /**
+     * @return row groups that may contain rows matching the filters, in file order
+     */
+    List<RowGroup> getRowGroups() {
+        return rowGroups;
+    }
+
+    /**
+     * @param after index of the last processed row, rows up to and including it are skipped. Use -1 to read all rows
+     */
+    RowGroupReader read(RowGroup rowGroup, long after) throws IOException {
+        return new RowGroupReader(rowGroup, after);
+    }
+
+    class RowGroupReader
+            implements AutoCloseable {
+
+        private final ParquetFileReader reader;
+        private final long rowIndexOffset;
+        private final long after;
+        private final RecordReader<ObjectNode> records;
+        private final PrimitiveIterator.OfLong rowIndexes;
+        private long remaining;
+        private long rowIndex;
+        private long nextRowIndex;
+
+        RowGroupReader(RowGroup rowGroup, long after) throws IOException {
+            this.rowIndexOffset = rowGroup.rowIndexOffset();
+            this.after = after;
+            this.reader = ParquetFileReader.open(new LocalInputFile(file), options);
+            try {
+                reader.setRequestedSchema(requestedSchema);
+                PageReadStore pages = reader.readFilteredRowGroup(rowGroup.index());
+                this.remaining = pages.getRowCount();
+                // Only the rows of pages matching the filters are read, in which case their indexes are given
+                this.rowIndexes = pages.getRowIndexes().orElse(null);
+                this.records = columnIO.getRecordReader(pages, new ObjectNodeMaterializer(requestedSchema), filter);
+            } catch (Throwable e) {
+                reader.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the next row matching the filters, or null at the end of the row group
+         */
+        ObjectNode next() {
+            while (remaining > 0) {
+                remaining--;
+                rowIndex = rowIndexOffset + (rowIndexes != null ? rowIndexes.nextLong() : nextRowIndex++);
+                ObjectNode row = records.read();
+                if (row == null || records.shouldSkipCurrentRecord() || rowIndex <= after)
+                    continue;
+                for (String[] path : hidden) {
+                    remove(row, path);
+                }
+                return row;
+            }
+            return null;
+        }
+
+        /**
+         * @return index in the file of the row last returned by {@link #next()}
+         */
+        long getRowIndex() {
+            return rowIndex;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    static MessageType project(MessageType schema, List<String[]> columns) {
+        if (columns.isEmpty())
+            return schema;
+        for (String[] column : columns) {
+            if (!schema.containsPath(column))
+                throw new IllegalArgumentException("Unknown column: " + String.join(".", column));
+        }
+        return new MessageType(schema.getName(), project(schema, columns, 0));
+    }
+
+    private static List<Type> project(GroupType group, List<String[]> columns, int depth) {
+        List<Type> fields = new ArrayList<>();
+        for (Type field : group.getFields()) {
+            List<String[]> fieldColumns = columns.stream()
+                    .filter(column -> column.length > depth && column[depth].equals(field.getName()))
+                    .toList();
+            if (fieldColumns.isEmpty())
+                continue;
+            if (field.isPrimitive() || fieldColumns.stream().anyMatch(column -> column.length == depth + 1)) {
+                fields.add(field);
+            } else {
+                fields.add(field.asGroupType().withNewFields(project(field.asGroupType(), fieldColumns, depth + 1)));
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isPrefix(String[] prefix, String[] path) {
+        return prefix.length <= path.length && Arrays.equals(prefix, 0, prefix.length, path, 0, prefix.length);
+    }
+
+    private static void remove(ObjectNode row, String[] path) {
+        ObjectNode parent = row;
+        for (int i = 0; i < path.length - 1; i++) {
+            JsonNode child = parent.get(path[i]);
+            if (!(child instanceof ObjectNode childObject))
+                return;
+            parent = childObject;
+        }
+        parent.remove(path[path.length - 1]);
+    }
+}
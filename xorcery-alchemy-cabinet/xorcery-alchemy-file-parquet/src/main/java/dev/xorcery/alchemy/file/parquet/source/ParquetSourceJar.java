@@ -1,64 +1,114 @@
 package dev.xorcery.alchemy.file.parquet.source;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.jerolba.carpet.CarpetReader;
-import com.jerolba.carpet.CloseableIterator;
-import dev.xorcery.alchemy.jar.JarConfiguration;
-import dev.xorcery.alchemy.jar.JarContext;
-import dev.xorcery.alchemy.jar.SourceJar;
-import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
+import dev.xorcery.alchemy.jar.*;
 import dev.xorcery.configuration.Configuration;
 import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.ContextViewElement;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import dev.xorcery.reactivestreams.api.ReactiveStreamsContext;
 import dev.xorcery.util.Resources;
-import org.apache.parquet.column.page.PageReadStore;
+import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.File;
-import java.util.Map;
-import java.util.function.LongConsumer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
 
 @Service(name = "parquet", metadata = "enabled=jars.enabled")
 public class ParquetSourceJar
         implements SourceJar {
 
+    // Rows are read from each row group in batches, and up to PREFETCH batches are buffered per row group
+    static final int BATCH_SIZE = 1024;
+    static final int PREFETCH = 8;
+
+    private final Scheduler scheduler;
+
+    @Inject
+    public ParquetSourceJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
+
+    /**
+     * Row groups are read concurrently on virtual threads, at most parallelism at a time, and rows are emitted in file
+     * order unless ordered is false. streamPosition is the index of the row in the file, and resuming skips straight to
+     * the row group containing the row after it. Resuming requires ordered rows, as with ordered false a position does
+     * not mean that all rows before it have been processed.
+     */
     @Override
     public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
-        ObjectMapper objectMapper = new JsonMapper().findAndRegisterModules();
+        List<String> columns = jarConfiguration.configuration().getListAs("columns", JsonNode::asText).orElse(Collections.emptyList());
+        List<String> filters = jarConfiguration.configuration().getListAs("filter", JsonNode::asText).orElse(Collections.emptyList());
+        int parallelism = jarConfiguration.getInteger("parallelism")
+                .filter(p -> p > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        boolean ordered = jarConfiguration.getBoolean("ordered").orElse(true);
 
-        return Flux.push(sink -> {
+        return Flux.deferContextual(context ->
+        {
             try {
+                long after = new ContextViewElement(context)
+                        .getLong(ReactiveStreamsContext.streamPosition).orElse(-1L);
+                if (after >= 0 && !ordered)
+                    return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Resuming from a streamPosition requires ordered: true"));
                 Object sourceUrl = jarConfiguration.get(JarContext.sourceUrl)
                         .orElseThrow(Configuration.missing(JarContext.sourceUrl.name()));
                 File parquetResource = Resources.getResource(sourceUrl.toString()).map(url -> new File(url.getFile()).getAbsoluteFile()).orElseThrow();
+                String parquetResourceUrl = parquetResource.toURI().toString();
+
+                ParquetRows rows;
+                try {
+                    rows = new ParquetRows(parquetResource.toPath(), columns, filters);
+                } catch (IllegalArgumentException e) {
+                    return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, e.getMessage(), e));
+                }
 
-                CloseableIterator<Map> iterator = new CarpetReader<>(parquetResource, Map.class).iterator();
-                sink.onRequest(new LongConsumer() {
-                    PageReadStore rowGroup;
+                Flux<ParquetRows.RowGroup> rowGroups = Flux.fromIterable(rows.getRowGroups())
+                        .filter(rowGroup -> rowGroup.rowIndexOffset() + rowGroup.rowCount() > after + 1);
+                Function<ParquetRows.RowGroup, Flux<List<MetadataJsonNode<JsonNode>>>> read = rowGroup ->
+                        read(rows, rowGroup, after, parquetResourceUrl).subscribeOn(scheduler);
+                return (ordered
+                        ? rowGroups.flatMapSequential(read, parallelism, PREFETCH)
+                        : rowGroups.flatMap(read, parallelism, PREFETCH))
+                        .flatMapIterable(Function.identity());
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+        });
+    }
 
-                    @Override
-                    public void accept(long requests) {
-                        try {
-                            while (requests-- > 0 && iterator.hasNext()){
-                                Map record = iterator.next();
-                                JsonNode jsonNode = objectMapper.valueToTree(record);
-                                sink.next(new MetadataJsonNode<>(new Metadata.Builder().build(), jsonNode));
-                            }
-                            if (!iterator.hasNext())
-                            {
-                                iterator.close();
-                                sink.complete();
-                            }
-                        } catch (Throwable e) {
-                            sink.error(e);
-                        }
-                    }
-                });
-            } catch (Throwable t) {
-                sink.error(t);
+    private Flux<List<MetadataJsonNode<JsonNode>>> read(ParquetRows rows, ParquetRows.RowGroup rowGroup, long after, String sourceUrl) {
+        return Flux.generate(() -> rows.read(rowGroup, after), (reader, sink) ->
+        {
+            List<MetadataJsonNode<JsonNode>> batch = new ArrayList<>(BATCH_SIZE);
+            long timestamp = System.currentTimeMillis();
+            ObjectNode row;
+            while (batch.size() < BATCH_SIZE && (row = reader.next()) != null) {
+                batch.add(new MetadataJsonNode<>(new Metadata.Builder()
+                        .add(StandardMetadata.sourceUrl, sourceUrl)
+                        .add(StandardMetadata.timestamp, timestamp)
+                        .add(StandardMetadata.streamPosition, reader.getRowIndex())
+                        .build(), row));
+            }
+            if (!batch.isEmpty())
+                sink.next(batch);
+            if (batch.size() < BATCH_SIZE)
+                sink.complete();
+            return reader;
+        }, reader ->
+        {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // Ignore
             }
         });
     }
@@ -0,0 +1,313 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroup;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes ObjectNodes as rows of a Parquet file.
+ * <p>
+ * Without an explicit schema the first rows are held back until enough have been seen to infer one. The ParquetWriter
+ * buffers rows in columnar form, and writes a row group whenever the buffered size reaches the row group size, so
+ * memory use is bounded by the row group size and not by the number of rows.
+ * <p>
+ * Values are converted to the column types, so text can be written to numeric, date and timestamp columns, and
+ * anything can be written to string columns, where objects and arrays become JSON text. Values that do not fit the
+ * column type, such as 1.5 in an integer column, fail the write rather than being truncated.
+ * <p>
+ * Fields that are not in the schema, such as fields first seen after the rows used for inference, are not written,
+ * and a warning is logged the first time each of them is seen.
+ */
+class ObjectNodeParquetWriter
+        implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(ObjectNodeParquetWriter.class);
+
+    record Settings(CompressionCodecName compression, boolean dictionary, long rowGroupSize, int pageSize) {
+    }
+
+    private final Path file;
+    private final Settings settings;
+    private final int inferRows;
+    private final List<JsonNode> sample = new ArrayList<>();
+    private final Set<String> unknownFields = new HashSet<>();
+    private MessageType schema;
+    private ParquetWriter<Group> writer;
+
+    /**
+     * @param schema schema to write, or null to infer it from the first inferRows rows
+     */
+    ObjectNodeParquetWriter(Path file, MessageType schema, int inferRows, Settings settings) {
+        this.file = file;
+        this.schema = schema;
+        this.inferRows = Math.max(inferRows, 1);
+        this.settings = settings;
+    }
+
+    void write(JsonNode row) throws IOException {
+        if (writer == null) {
+            if (schema == null) {
+                sample.add(row);
+                if (sample.size() < inferRows)
+                    return;
+                schema = ParquetSchemas.infer(sample);
+                open();
+                return;
+            }
+            open();
+        }
+        writer.write(toGroup(row));
+    }
+
+    /**
+     * Writes the last row group and the footer. If no rows were written, and there is no explicit schema, no file is created.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null) {
+            if (schema == null) {
+                if (sample.isEmpty())
+                    return;
+                schema = ParquetSchemas.infer(sample);
+            }
+            open();
+        }
+        writer.close();
+    }
+
+    private void open() throws IOException {
+        writer = ExampleParquetWriter.builder(new LocalOutputFile(file))
+                .withType(schema)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withCompressionCodec(settings.compression())
+                .withDictionaryEncoding(settings.dictionary())
+                .withRowGroupSize(settings.rowGroupSize())
+                .withPageSize(settings.pageSize())
+                .build();
+        for (JsonNode row : sample) {
+            writer.write(toGroup(row));
+        }
+        sample.clear();
+    }
+
+    private Group toGroup(JsonNode row) {
+        if (!(row instanceof ObjectNode objectNode))
+            throw new IllegalArgumentException("Parquet rows must be objects");
+        Group group = new SimpleGroup(schema);
+        writeFields(group, schema, objectNode, "");
+        return group;
+    }
+
+    private void writeFields(Group group, GroupType type, ObjectNode object, String path) {
+        int known = 0;
+        for (int i = 0; i < type.getFieldCount(); i++) {
+            Type field = type.getType(i);
+            JsonNode value = object.get(field.getName());
+            if (value != null)
+                known++;
+            if (value == null || value.isNull()) {
+                if (field.isRepetition(Type.Repetition.REQUIRED))
+                    throw new IllegalArgumentException("Missing required field " + field.getName());
+                continue;
+            }
+            if (field.isRepetition(Type.Repetition.REPEATED)) {
+                for (JsonNode element : elements(value)) {
+                    writeValue(group, i, field, element, path);
+                }
+            } else {
+                writeValue(group, i, field, value, path);
+            }
+        }
+
+        if (known < object.size()) {
+            for (String name : object.propertyNames()) {
+                if (!type.containsField(name) && unknownFields.add(path + name))
+                    logger.warn("Field {}{} is not in the Parquet schema, and is not written", path, name);
+            }
+        }
+    }
+
+    private void writeValue(Group group, int fieldIndex, Type type, JsonNode value, String path) {
+        if (type.isPrimitive()) {
+            writePrimitive(group, fieldIndex, type.asPrimitiveType(), value);
+            return;
+        }
+
+        GroupType groupType = type.asGroupType();
+        LogicalTypeAnnotation annotation = groupType.getLogicalTypeAnnotation();
+        if (annotation instanceof LogicalTypeAnnotation.ListLogicalTypeAnnotation
+                && groupType.getFieldCount() == 1 && groupType.getType(0).isRepetition(Type.Repetition.REPEATED)) {
+            Group list = group.addGroup(fieldIndex);
+            Type repeated = groupType.getType(0);
+            boolean elementGroup = !repeated.isPrimitive() && repeated.asGroupType().getFieldCount() == 1;
+            for (JsonNode element : elements(value)) {
+                if (!elementGroup) {
+                    writeValue(list, 0, repeated, element, path);
+                    continue;
+                }
+                Group entry = list.addGroup(0);
+                Type elementType = repeated.asGroupType().getType(0);
+                if (element == null || element.isNull()) {
+                    if (elementType.isRepetition(Type.Repetition.REQUIRED))
+                        throw new IllegalArgumentException("Null element in list " + type.getName());
+                } else {
+                    writeValue(entry, 0, elementType, element, path);
+                }
+            }
+        } else if ((annotation instanceof LogicalTypeAnnotation.MapLogicalTypeAnnotation || annotation instanceof LogicalTypeAnnotation.MapKeyValueTypeAnnotation)
+                && groupType.getFieldCount() == 1 && !groupType.getType(0).isPrimitive() && groupType.getType(0).asGroupType().getFieldCount() == 2) {
+            Group map = group.addGroup(fieldIndex);
+            GroupType keyValue = groupType.getType(0).asGroupType();
+            value.properties().forEach(entry ->
+            {
+                Group keyValueGroup = map.addGroup(0);
+                keyValueGroup.add(0, Binary.fromString(entry.getKey()));
+                if (!entry.getValue().isNull())
+                    writeValue(keyValueGroup, 1, keyValue.getType(1), entry.getValue(), path);
+            });
+        } else if (value instanceof ObjectNode objectNode) {
+            writeFields(group.addGroup(fieldIndex), groupType, objectNode, path + type.getName() + ".");
+        } else {
+            throw new IllegalArgumentException("Field " + type.getName() + " must be an object");
+        }
+    }
+
+    private static void writePrimitive(Group group, int fieldIndex, PrimitiveType type, JsonNode value) {
+        LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN -> group.add(fieldIndex, value.isBoolean() ? value.booleanValue() : Boolean.parseBoolean(value.asText()));
+            case INT32 -> {
+                if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation && value.isTextual())
+                    group.add(fieldIndex, (int) LocalDate.parse(value.textValue()).toEpochDay());
+                else if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal)
+                    group.add(fieldIndex, unscaled(value, decimal).intValueExact());
+                else
+                    group.add(fieldIndex, integral(type, value, true).intValue());
+            }
+            case INT64 -> {
+                if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation timestamp && value.isTextual())
+                    group.add(fieldIndex, timestamp(Instant.parse(value.textValue()), timestamp.getUnit()));
+                else if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal)
+                    group.add(fieldIndex, unscaled(value, decimal).longValueExact());
+                else
+                    group.add(fieldIndex, integral(type, value, false));
+            }
+            case FLOAT -> group.add(fieldIndex, value.isNumber() ? value.floatValue() : Float.parseFloat(value.asText()));
+            case DOUBLE -> group.add(fieldIndex, value.isNumber() ? value.doubleValue() : Double.parseDouble(value.asText()));
+            case BINARY, FIXED_LEN_BYTE_ARRAY -> group.add(fieldIndex, binary(type, annotation, value));
+            case INT96 -> throw new IllegalArgumentException("Writing INT96 columns is not supported: " + type.getName());
+        }
+    }
+
+    /**
+     * Integer columns only accept integral values, so a fractional value fails instead of being truncated
+     */
+    private static long integral(PrimitiveType type, JsonNode value, boolean int32) {
+        if (value.isIntegralNumber() && (int32 ? value.canConvertToInt() : value.canConvertToLong()))
+            return value.longValue();
+        try {
+            BigDecimal number = value.isNumber() ? value.decimalValue() : new BigDecimal(value.asText().trim());
+            return int32 ? number.intValueExact() : number.longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Field " + type.getName() + " is " + type.getPrimitiveTypeName() + " and cannot hold " + value, e);
+        }
+    }
+
+    private static Binary binary(PrimitiveType type, LogicalTypeAnnotation annotation, JsonNode value) {
+        if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal) {
+            byte[] bytes = unscaled(value, decimal).toByteArray();
+            return Binary.fromConstantByteArray(type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY
+                    ? signExtend(bytes, type.getTypeLength())
+                    : bytes);
+        } else if (annotation instanceof LogicalTypeAnnotation.UUIDLogicalTypeAnnotation && value.isTextual()) {
+            UUID uuid = UUID.fromString(value.textValue());
+            return Binary.fromConstantByteArray(ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array());
+        } else if (value.isBinary()) {
+            try {
+                return Binary.fromConstantByteArray(value.binaryValue());
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        } else if (type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY) {
+            throw new IllegalArgumentException("Field " + type.getName() + " must be binary");
+        }
+        return Binary.fromString(value.isTextual() ? value.textValue() : value.toString());
+    }
+
+    private static BigInteger unscaled(JsonNode value, LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal) {
+        return (value.isNumber() ? value.decimalValue() : new BigDecimal(value.asText()))
+                .setScale(decimal.getScale(), RoundingMode.HALF_UP)
+                .unscaledValue();
+    }
+
+    private static byte[] signExtend(byte[] bytes, int length) {
+        if (bytes.length > length)
+            throw new IllegalArgumentException("Decimal does not fit in " + length + " bytes");
+        byte[] result = new byte[length];
+        byte padding = bytes.length > 0 && bytes[0] < 0 ? (byte) -1 : 0;
+        Arrays.fill(result, 0, length - bytes.length, padding);
+        System.arraycopy(bytes, 0, result, length - bytes.length, bytes.length);
+        return result;
+    }
+
+    private static long timestamp(Instant instant, LogicalTypeAnnotation.TimeUnit unit) {
+        return switch (unit) {
+            case MILLIS -> instant.toEpochMilli();
+            case MICROS -> Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000L);
+            case NANOS -> Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        };
+    }
+
+    private static Iterable<JsonNode> elements(JsonNode value) {
+        return value.isArray() ? value : Collections.singletonList(value);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+@Service(name = "parquet", metadata = "enabled=jars.enabled")
+public class ParquetFileTransmuteJar
+        implements BatchTransmuteJar {
+
+    @Override
+    public BatchTransmute newBatchTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return (flux, context) ->
+        {
+            URI fileUrl = jarConfiguration.getURI(JarContext.resultUrl).orElse(null);
+
+            if (fileUrl == null) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not find file"));
+            }
+            if (!fileUrl.getScheme().equals("file")) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Parquet files can only be written to file: resultUrl"));
+            }
+
+            try {
+                File file = new File(fileUrl).getAbsoluteFile();
+                file.getParentFile().mkdirs();
+
+                MessageType schema = jarConfiguration.getString("schema").map(MessageTypeParser::parseMessageType).orElse(null);
+                ObjectNodeParquetWriter writer = new ObjectNodeParquetWriter(file.toPath(), schema,
+                        jarConfiguration.getInteger("inferRows").orElse(100),
+                        new ObjectNodeParquetWriter.Settings(
+                                CompressionCodecName.fromConf(jarConfiguration.getString("compression").map(String::toUpperCase).orElse("SNAPPY")),
+                                jarConfiguration.getBoolean("dictionary").orElse(true),
+                                jarConfiguration.getLong("rowGroupSize").orElse(128L * 1024 * 1024),
+                                jarConfiguration.getInteger("pageSize").orElse(1024 * 1024)));
+                boolean[] closed = new boolean[1];
+
+                // The footer is written when the writer is closed, which has to happen before completion is signalled
+                return flux.<List<MetadataJsonNode<JsonNode>>>handle((batch, sink) ->
+                        {
+                            try {
+                                for (MetadataJsonNode<JsonNode> item : batch) {
+                                    writer.write(item.data());
+                                }
+                                sink.next(batch);
+                            } catch (IOException | RuntimeException e) {
+                                sink.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write Parquet file", e));
+                            }
+                        })
+                        .concatWith(Flux.defer(() ->
+                        {
+                            try {
+                                closed[0] = true;
+                                writer.close();
+                                return Flux.empty();
+                            } catch (IOException | RuntimeException e) {
+                                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write Parquet file", e));
+                            }
+                        }))
+                        .doFinally(signal ->
+                        {
+                            if (!closed[0]) {
+                                try {
+                                    writer.close();
+                                } catch (IOException | RuntimeException e) {
+                                    // Ignore
+                                }
+                            }
+                        });
+            } catch (Throwable e) {
+                return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write Parquet file", e));
+            }
+        };
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.parquet.transmute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infers a Parquet schema from sample items.
+ * <p>
+ * All fields are optional, and are ordered as first seen. Integers become INT64, other numbers DOUBLE, text STRING,
+ * binary BINARY, objects groups and arrays LISTs. Fields with conflicting types, only null values, or empty objects
+ * become STRING, and are written as JSON text.
+ */
+final class ParquetSchemas {
+
+    private ParquetSchemas() {
+    }
+
+    static MessageType infer(List<JsonNode> items) {
+        Shape shape = null;
+        for (JsonNode item : items) {
+            shape = merge(shape, item);
+        }
+        if (shape == null || shape.kind != Kind.OBJECT)
+            throw new IllegalArgumentException("Parquet rows must be objects");
+        return new MessageType("row", fields(shape));
+    }
+
+    private enum Kind {
+        BOOLEAN, LONG, DOUBLE, STRING, BINARY, OBJECT, ARRAY
+    }
+
+    private static class Shape {
+        Kind kind;
+        final Map<String, Shape> fields = new LinkedHashMap<>();
+        Shape element;
+
+        Shape(Kind kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * @return the shape of both, where shape is null if only nulls have been seen
+     */
+    private static Shape merge(Shape shape, JsonNode value) {
+        if (value == null || value.isNull() || value.isMissingNode())
+            return shape;
+
+        Kind kind;
+        if (value.isBoolean())
+            kind = Kind.BOOLEAN;
+        else if (value.isIntegralNumber() && value.canConvertToLong())
+            kind = Kind.LONG;
+        else if (value.isNumber())
+            kind = Kind.DOUBLE;
+        else if (value.isBinary())
+            kind = Kind.BINARY;
+        else if (value.isObject())
+            kind = Kind.OBJECT;
+        else if (value.isArray())
+            kind = Kind.ARRAY;
+        else
+            kind = Kind.STRING;
+
+        if (shape != null && shape.kind != kind) {
+            shape.kind = (shape.kind == Kind.LONG && kind == Kind.DOUBLE) || (shape.kind == Kind.DOUBLE && kind == Kind.LONG)
+                    ? Kind.DOUBLE
+                    : Kind.STRING;
+            return shape;
+        }
+
+        Shape merged = shape == null ? new Shape(kind) : shape;
+        switch (kind) {
+            case OBJECT -> value.properties().forEach(field ->
+                    merged.fields.put(field.getKey(), merge(merged.fields.get(field.getKey()), field.getValue())));
+            case ARRAY -> {
+                for (JsonNode element : value) {
+                    merged.element = merge(merged.element, element);
+                }
+            }
+            default -> {
+            }
+        }
+        return merged;
+    }
+
+    private static List<Type> fields(Shape shape) {
+        List<Type> fields = new ArrayList<>(shape.fields.size());
+        shape.fields.forEach((name, field) -> fields.add(type(name, field)));
+        return fields;
+    }
+
+    private static Type type(String name, Shape shape) {
+        Kind kind = shape == null ? Kind.STRING : shape.kind;
+        if (kind == Kind.OBJECT && shape.fields.isEmpty())
+            kind = Kind.STRING;
+
+        return switch (kind) {
+            case BOOLEAN -> Types.optional(PrimitiveType.PrimitiveTypeName.BOOLEAN).named(name);
+            case LONG -> Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named(name);
+            case DOUBLE -> Types.optional(PrimitiveType.PrimitiveTypeName.DOUBLE).named(name);
+            case BINARY -> Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).named(name);
+            case STRING -> Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(name);
+            case OBJECT -> new GroupType(Type.Repetition.OPTIONAL, name, fields(shape));
+            case ARRAY -> Types.optionalGroup()
+                    .as(LogicalTypeAnnotation.listType())
+                    .addField(new GroupType(Type.Repetition.REPEATED, "list", type("element", shape.element)))
+                    .named(name);
+        };
+    }
+}
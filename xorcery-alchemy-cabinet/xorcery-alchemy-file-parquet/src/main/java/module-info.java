@@ -1,12 +1,14 @@
 module xorcery.alchemy.file.parquet {
     exports dev.xorcery.alchemy.file.parquet.source;
+    exports dev.xorcery.alchemy.file.parquet.transmute;
 
     requires xorcery.alchemy.jar;
+    requires xorcery.alchemy.crucible;
     requires xorcery.configuration.api;
     requires xorcery.reactivestreams.api;
 
     requires org.glassfish.hk2.api;
     requires jakarta.inject;
-    requires carpet.record;
     requires org.apache.parquet;
+    requires org.apache.logging.log4j;
 }
\ No newline at end of file
@@ -16,34 +16,70 @@
 package dev.xorcery.alchemy.file.yaml.source;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import dev.xorcery.alchemy.jar.JarConfiguration;
-import dev.xorcery.alchemy.jar.JarContext;
-import dev.xorcery.alchemy.jar.SourceJar;
-import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
+import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.collections.Element;
 import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.ContextViewElement;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
-import dev.xorcery.reactivestreams.extras.publishers.ResourcePublisherContext;
+import dev.xorcery.reactivestreams.api.ReactiveStreamsContext;
+import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedInputStream;
+import java.net.URL;
 
 @Service(name = "yaml", metadata = "enabled=jars.enabled")
 public class YamlFileSourceJar
         implements SourceJar {
 
+    private final Scheduler scheduler;
+    private final ObjectReader reader = new YAMLMapper().findAndRegisterModules().readerFor(JsonNode.class);
+
+    @Inject
+    public YamlFileSourceJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
+
     @Override
     public Flux<MetadataJsonNode<JsonNode>> newSource(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
-        return Flux.from(new YamlPublisher<JsonNode>(JsonNode.class))
-                .contextCapture()
-                .contextWrite(context ->
-                        jarConfiguration.getString(JarContext.sourceUrl).map(url ->
-                                context.put(ResourcePublisherContext.resourceUrl, url)).orElse(context))
-                .map(json ->
-                {
-                    ObjectNode metadata = JsonNodeFactory.instance.objectNode();
-                    metadata.set("timestamp", JsonNodeFactory.instance.numberNode(System.currentTimeMillis()));
-                    return new MetadataJsonNode<>(new Metadata(metadata), json);
-                });
+        try {
+            Object sourceUrl = jarConfiguration.get(JarContext.sourceUrl)
+                    .orElseThrow(Element.missing(JarContext.sourceUrl));
+            URL yamlResource = sourceUrl instanceof URL url ? url : new URL(sourceUrl.toString());
+            String yamlResourceUrl = yamlResource.toExternalForm();
+            YamlStreamer.Positions positions = YamlStreamer.Positions.valueOf(jarConfiguration.getString("position").orElse("index"));
+
+            // Each subscription reads on its own worker of the shared virtual thread scheduler
+            return Flux.<MetadataJsonNode<JsonNode>>create(sink ->
+            {
+                try {
+                    long resumeAt = new ContextViewElement(sink.contextView())
+                            .getLong(ReactiveStreamsContext.streamPosition)
+                            .orElse(-1L);
+                    YamlStreamer<MetadataJsonNode<JsonNode>> streamer = new YamlStreamer<>(sink,
+                            new BufferedInputStream(yamlResource.openStream(), 32 * 1024), positions, resumeAt,
+                            (parser, position) ->
+                            {
+                                JsonNode json = reader.readValue(parser);
+                                return new MetadataJsonNode<>(new Metadata.Builder()
+                                        .add(StandardMetadata.sourceUrl, yamlResourceUrl)
+                                        .add(StandardMetadata.timestamp, System.currentTimeMillis())
+                                        .add(StandardMetadata.streamPosition, position)
+                                        .build(), json);
+                            });
+                    sink.onRequest(streamer);
+                    sink.onDispose(streamer);
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            }).subscribeOn(scheduler, true);
+        } catch (Throwable e) {
+            return Flux.error(e);
+        }
     }
 }
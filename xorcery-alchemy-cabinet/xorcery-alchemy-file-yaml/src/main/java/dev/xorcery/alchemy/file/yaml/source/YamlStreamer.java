@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.file.yaml.source;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+import org.yaml.snakeyaml.LoaderOptions;
+import reactor.core.Disposable;
+import reactor.core.publisher.FluxSink;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads YAML documents, or the items of a top-level sequence, on request.
+ * <p>
+ * The position of an item is either its index, or the line it starts at. When resuming from an index the items
+ * before it are passed over with {@link YAMLParser#skipChildren()}, without building them. When resuming from a line
+ * the bytes before that line are skipped without parsing them, which requires block style documents or sequence items
+ * that start on a line of their own.
+ */
+class YamlStreamer<T>
+        implements LongConsumer, Disposable {
+
+    enum Positions {
+        index,
+        line
+    }
+
+    interface ItemReader<T> {
+        T read(YAMLParser parser, long position) throws IOException;
+    }
+
+    private static final YAMLFactory factory;
+
+    static {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        factory = YAMLFactory.builder().loaderOptions(loaderOptions).build();
+    }
+
+    private final FluxSink<T> sink;
+    private final YAMLParser parser;
+    private final Positions positions;
+    private final ItemReader<T> itemReader;
+
+    private long skip;
+    private long index;
+    private long lineOffset;
+    private boolean started;
+    private boolean inSequence;
+
+    /**
+     * @param in        stream to read, which is closed when done
+     * @param resumeAt  position of the last processed item, or -1 to read from the start
+     */
+    YamlStreamer(FluxSink<T> sink, BufferedInputStream in, Positions positions, long resumeAt, ItemReader<T> itemReader) throws IOException {
+        this.sink = sink;
+        this.positions = positions;
+        this.itemReader = itemReader;
+
+        if (resumeAt >= 0) {
+            if (positions == Positions.line) {
+                // Lines are 1-based, the item at the line was processed already
+                lineOffset = skipLines(in, resumeAt - 1);
+                skip = lineOffset == resumeAt - 1 ? 1 : 0;
+            } else {
+                skip = resumeAt + 1;
+            }
+        }
+        this.parser = factory.createParser(in);
+    }
+
+    @Override
+    public void accept(long request) {
+        try {
+            while (request > 0) {
+                JsonToken token = nextItem();
+                if (token == null) {
+                    parser.close();
+                    sink.complete();
+                    return;
+                }
+
+                long position = positions == Positions.line
+                        ? lineOffset + parser.currentTokenLocation().getLineNr()
+                        : index;
+                index++;
+                if (skip > 0) {
+                    parser.skipChildren();
+                    skip--;
+                    continue;
+                }
+
+                sink.next(itemReader.read(parser, position));
+                request--;
+            }
+        } catch (Throwable e) {
+            dispose();
+            sink.error(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * @return first token of the next item, or null if there are no more items
+     */
+    private JsonToken nextItem() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                inSequence = true;
+                token = parser.nextToken();
+            }
+        }
+        return inSequence && token == JsonToken.END_ARRAY ? null : token;
+    }
+
+    /**
+     * @return number of lines skipped, less than lines if the end of the stream was reached
+     */
+    private static long skipLines(BufferedInputStream in, long lines) throws IOException {
+        byte[] buffer = new byte[32 * 1024];
+        long skipped = 0;
+        while (skipped < lines) {
+            in.mark(buffer.length);
+            int read = in.read(buffer);
+            if (read == -1)
+                return skipped;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n' && ++skipped == lines) {
+                    in.reset();
+                    in.skipNBytes(i + 1);
+                    return skipped;
+                }
+            }
+        }
+        return skipped;
+    }
+}
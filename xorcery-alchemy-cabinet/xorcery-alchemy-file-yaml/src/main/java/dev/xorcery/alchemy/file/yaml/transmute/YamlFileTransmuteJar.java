@@ -17,25 +17,36 @@ package dev.xorcery.alchemy.file.yaml.transmute;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import dev.xorcery.alchemy.crucible.VirtualThreadScheduler;
 import dev.xorcery.alchemy.jar.*;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.net.URI;
+import java.util.List;
 
 @Service(name = "yaml", metadata = "enabled=jars.enabled")
 public class YamlFileTransmuteJar
-        implements TransmuteJar {
+        implements BatchTransmuteJar {
+
+    private final Scheduler scheduler;
+
+    @Inject
+    public YamlFileTransmuteJar(VirtualThreadScheduler virtualThreadScheduler) {
+        this.scheduler = virtualThreadScheduler.getScheduler();
+    }
 
     @Override
-    public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+    public BatchTransmute newBatchTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
         return (flux, context) ->
         {
             URI fileUrl = jarConfiguration.getURI(JarContext.resultUrl).orElse(null);
@@ -49,35 +60,102 @@ public class YamlFileTransmuteJar
             }
 
             try {
-                BufferedOutputStream outputStream = new BufferedOutputStream(fileUrl.getScheme().equals("file")
-                        ? new FileOutputStream(new File(fileUrl).getAbsoluteFile())
-                        : fileUrl.toURL().openConnection().getOutputStream());
+                OutputStream outputStream = new BufferedOutputStream(fileUrl.getScheme().equals("file")
+                                ? new FileOutputStream(new File(fileUrl).getAbsoluteFile())
+                                : fileUrl.toURL().openConnection().getOutputStream(),
+                        jarConfiguration.getInteger("bufferSize").orElse(1024 * 1024));
                 ObjectMapper mapper = new YAMLMapper().findAndRegisterModules()
                         .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
                         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
                         .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
                         .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
                         .enable(SerializationFeature.WRITE_DATES_WITH_CONTEXT_TIME_ZONE)
-                        .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
-                return flux.doOnTerminate(() ->
+                        .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+                        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                boolean dataOnly = jarConfiguration.getBoolean("dataOnly").orElse(false);
+                boolean asyncWrite = jarConfiguration.getBoolean("asyncWrite").orElse(true);
+
+                // One generator for the whole file, so every item becomes a "---" separated document.
+                // Batches are serialized into memory on the pipeline thread, and then written to the file
+                ByteArrayOutputStream batchBytes = new ByteArrayOutputStream(64 * 1024);
+                JsonGenerator generator = mapper.createGenerator(batchBytes);
+                boolean[] closed = new boolean[1];
+
+                Flux<BatchBytes> serialized = flux.<BatchBytes>handle((batch, sink) ->
                 {
                     try {
-                        outputStream.close();
+                        for (MetadataJsonNode<JsonNode> item : batch) {
+                            mapper.writeValue(generator, dataOnly ? item.data() : item);
+                        }
+                        generator.flush();
+                        sink.next(new BatchBytes(batch, batchBytes.toByteArray()));
+                        batchBytes.reset();
                     } catch (IOException e) {
-                        // Ignore
+                        sink.error(e);
                     }
-                }).handle((item, sink) ->
+                });
+
+                // Async writes happen on the virtual thread scheduler, one batch at a time and in order,
+                // while the next batches are serialized. Batches are emitted once written
+                Flux<List<MetadataJsonNode<JsonNode>>> written = asyncWrite
+                        ? serialized.concatMap(batch -> Mono.fromCallable(() -> write(outputStream, batch, closed)).subscribeOn(scheduler), 2)
+                        : serialized.<List<MetadataJsonNode<JsonNode>>>handle((batch, sink) ->
                 {
                     try {
-                        mapper.writeValue(outputStream, item);
-                        sink.next(item);
+                        sink.next(write(outputStream, batch, closed));
                     } catch (IOException e) {
                         sink.error(e);
                     }
                 });
+
+                // The rest of the file is written after the last batch has been written, and before completion is signalled
+                Flux<List<MetadataJsonNode<JsonNode>>> finish = Flux.defer(() ->
+                {
+                    try {
+                        generator.close();
+                        synchronized (outputStream) {
+                            closed[0] = true;
+                            try (outputStream) {
+                                outputStream.write(batchBytes.toByteArray());
+                            }
+                        }
+                        return Flux.empty();
+                    } catch (IOException e) {
+                        return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write YAML file", e));
+                    }
+                });
+                return written
+                        .concatWith(asyncWrite ? finish.subscribeOn(scheduler) : finish)
+                        .doFinally(signal ->
+                        {
+                            // Cancelled or failed. Waits for a write in progress, and later writes are skipped
+                            synchronized (outputStream) {
+                                if (!closed[0]) {
+                                    closed[0] = true;
+                                    try {
+                                        outputStream.close();
+                                    } catch (IOException e) {
+                                        // Ignore
+                                    }
+                                }
+                            }
+                        });
             } catch (Throwable e) {
                 return Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Could not write YAML file", e));
             }
         };
     }
+
+    private static List<MetadataJsonNode<JsonNode>> write(OutputStream outputStream, BatchBytes batch, boolean[] closed) throws IOException {
+        synchronized (outputStream) {
+            if (closed[0])
+                throw new IOException("YAML file is closed");
+            outputStream.write(batch.bytes());
+            outputStream.flush();
+        }
+        return batch.items();
+    }
+
+    private record BatchBytes(List<MetadataJsonNode<JsonNode>> items, byte[] bytes) {
+    }
 }
@@ -18,6 +18,7 @@ module xorcery.alchemy.file.yaml {
     exports dev.xorcery.alchemy.file.yaml.transmute;
 
     requires xorcery.alchemy.jar;
+    requires xorcery.alchemy.crucible;
     requires xorcery.reactivestreams.extras;
 
     requires xorcery.reactivestreams.api;
@@ -22,10 +22,11 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.schibsted.spt.data.jslt.Expression;
 import com.schibsted.spt.data.jslt.Function;
 import com.schibsted.spt.data.jslt.Parser;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.ItemTransmuteJar;
 import dev.xorcery.alchemy.jar.JarConfiguration;
 import dev.xorcery.alchemy.jar.TransmutationConfiguration;
 import dev.xorcery.alchemy.jar.Transmute;
-import dev.xorcery.alchemy.jar.TransmuteJar;
 import dev.xorcery.metadata.Metadata;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
 import jakarta.inject.Inject;
@@ -35,11 +36,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.SynchronousSink;
 
 import java.util.*;
-import java.util.function.BiConsumer;
 
 @Service(name = "jslt", metadata = "enabled=jars.enabled")
 public class JsltTransmuteJar
-        implements TransmuteJar {
+        implements ItemTransmuteJar {
 
     private final Collection<Function> customFunctions = new ArrayList<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -63,21 +63,28 @@ public class JsltTransmuteJar
         ).orElseGet(()-> (metadataJsonNodeFlux, contextView) -> Flux.error(new IllegalArgumentException("Missing 'jslt' transformation configuration")));
     }
 
+    @Override
+    public Optional<ItemTransmute> newItemTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return jarConfiguration.configuration().getJson("jslt").map(jslt ->
+                new JsltTransmute(Parser.compileString(jslt.asText(), customFunctions), getVariables(jarConfiguration)));
+    }
+
     Transmute newJsltTransmuteFactory(Expression expression, JarConfiguration jarConfiguration)
     {
-        return (flux, context)->
+        return (flux, context)-> flux.handle(new JsltTransmute(expression, getVariables(jarConfiguration)));
+    }
+
+    private Map<String, JsonNode> getVariables(JarConfiguration jarConfiguration) {
+        Map<String, JsonNode> variables = new HashMap<>();
+        jarConfiguration.configuration().getConfiguration("context").object().fields().forEachRemaining(entry ->
         {
-            Map<String, JsonNode> variables = new HashMap<>();
-            jarConfiguration.configuration().getConfiguration("context").object().fields().forEachRemaining(entry ->
-            {
-                variables.put(entry.getKey(), entry.getValue());
-            });
-            return flux.handle(new JsltTransmute(expression, variables));
-        };
+            variables.put(entry.getKey(), entry.getValue());
+        });
+        return variables;
     }
 
     static class JsltTransmute
-            implements BiConsumer<MetadataJsonNode<JsonNode>, SynchronousSink<MetadataJsonNode<JsonNode>>> {
+            implements ItemTransmute {
         private final Expression expression;
         private final Map<String, JsonNode> variables;
 
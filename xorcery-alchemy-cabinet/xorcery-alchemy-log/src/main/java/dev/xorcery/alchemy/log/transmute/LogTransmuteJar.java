@@ -16,10 +16,11 @@
 package dev.xorcery.alchemy.log.transmute;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.ItemTransmuteJar;
 import dev.xorcery.alchemy.jar.JarConfiguration;
 import dev.xorcery.alchemy.jar.TransmutationConfiguration;
 import dev.xorcery.alchemy.jar.Transmute;
-import dev.xorcery.alchemy.jar.TransmuteJar;
 import dev.xorcery.configuration.Configuration;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
 import jakarta.inject.Inject;
@@ -28,9 +29,11 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.spi.LoggerContext;
 import org.jvnet.hk2.annotations.Service;
 
+import java.util.Optional;
+
 @Service(name="log", metadata = "enabled=jars.enabled")
 public class LogTransmuteJar
-    implements TransmuteJar
+    implements ItemTransmuteJar
 {
     private final Configuration configuration;
     private final LoggerContext loggerContext;
@@ -43,11 +46,29 @@ public class LogTransmuteJar
 
     @Override
     public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
-        Logger logger = loggerContext.getLogger(jarConfiguration.getName().or(transmutationConfiguration::getName).or(()->configuration.getString("jars.log.transmute.logger")).orElse("log"));
-        Level level = Level.toLevel(jarConfiguration.getString("level").orElseGet(()->configuration.getString("jars.log.transmute.level").orElse("info")));
+        Logger logger = getLogger(jarConfiguration, transmutationConfiguration);
+        Level level = getLevel(jarConfiguration);
         return (flux,context)->flux.doOnNext(json -> logger.log(level, toMessage(json)));
     }
 
+    @Override
+    public Optional<ItemTransmute> newItemTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        Logger logger = getLogger(jarConfiguration, transmutationConfiguration);
+        Level level = getLevel(jarConfiguration);
+        return Optional.of((json, sink) -> {
+            logger.log(level, toMessage(json));
+            sink.next(json);
+        });
+    }
+
+    private Logger getLogger(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return loggerContext.getLogger(jarConfiguration.getName().or(transmutationConfiguration::getName).or(()->configuration.getString("jars.log.transmute.logger")).orElse("log"));
+    }
+
+    private Level getLevel(JarConfiguration jarConfiguration) {
+        return Level.toLevel(jarConfiguration.getString("level").orElseGet(()->configuration.getString("jars.log.transmute.level").orElse("info")));
+    }
+
     private String toMessage(MetadataJsonNode<JsonNode> json) {
         return (!json.metadata().json().isEmpty() ? json.metadata().json().toPrettyString()+":":"")+(!json.data().isEmpty() ? json.data().toPrettyString():"");
     }
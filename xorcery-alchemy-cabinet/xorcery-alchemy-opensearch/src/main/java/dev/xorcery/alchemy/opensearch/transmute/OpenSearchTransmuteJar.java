@@ -20,14 +20,15 @@ import dev.xorcery.lang.Exceptions;
 import dev.xorcery.opensearch.OpenSearchService;
 import dev.xorcery.opensearch.client.search.Document;
 import dev.xorcery.opensearch.client.search.SearchRequest;
-import dev.xorcery.opensearch.client.search.SearchResponse;
 import dev.xorcery.util.UUIDs;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 import org.jvnet.hk2.annotations.Service;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -44,39 +45,30 @@ public class OpenSearchTransmuteJar
 
     @Override
     public Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
-        return (flux, context)-> flux.contextWrite(ctx ->
+        return (flux, context) ->
         {
             // Find last metadata.streamPosition for this sourceUrl under the given alias
             String sourceUrl = jarConfiguration.getString(JarContext.sourceUrl).orElse(null);
-            if (sourceUrl == null)
-                return ctx;
-
             String alias = jarConfiguration.getString("alias").orElse(null);
-            if (alias == null)
-                return ctx;
-
-            try {
-                SearchRequest request = SearchRequest.builder()
-                        .query(QueryDSL.match_phrase("metadata.sourceUrl", sourceUrl))
-                        .build();
-                SearchResponse response = openSearchService.getClient().search().search(alias, request, Map.of("size", "1", "sort", "metadata.streamPosition:desc")).orTimeout(10, TimeUnit.SECONDS).join();
+            if (sourceUrl == null || alias == null)
+                return flux.transformDeferredContextual(openSearchService.documentUpdates(item -> UUIDs.newId(), Function.identity()));
 
-                List<Document> documents = response.hits().documents();
-                if (!documents.isEmpty())
-                {
-                    long streamPosition = documents.get(0).json().path("_source").path("metadata").path("streamPosition").longValue();
-                    return ctx.put(JarContext.streamPosition.name(), streamPosition);
-                }
-                return ctx;
-            } catch (Throwable e) {
-                if (Exceptions.unwrap(e) instanceof NotFoundException)
-                {
-                    // Ok!
-                    return ctx;
-                } else {
-                    throw (RuntimeException)e;
-                }
-            }
-        }).transformDeferredContextual(openSearchService.documentUpdates(item -> UUIDs.newId(), Function.identity()));
+            SearchRequest request = SearchRequest.builder()
+                    .query(QueryDSL.match_phrase("metadata.sourceUrl", sourceUrl))
+                    .build();
+            return Mono.fromCompletionStage(() -> openSearchService.getClient().search().search(alias, request, Map.of("size", "1", "sort", "metadata.streamPosition:desc")).orTimeout(10, TimeUnit.SECONDS))
+                    .map(response ->
+                    {
+                        List<Document> documents = response.hits().documents();
+                        return documents.isEmpty()
+                                ? Optional.<Long>empty()
+                                : Optional.of(documents.get(0).json().path("_source").path("metadata").path("streamPosition").longValue());
+                    })
+                    .onErrorResume(e -> Exceptions.unwrap(e) instanceof NotFoundException, e -> Mono.just(Optional.empty()))
+                    .flatMapMany(streamPosition -> streamPosition
+                            .map(position -> flux.contextWrite(ctx -> ctx.put(JarContext.streamPosition.name(), position)))
+                            .orElse(flux)
+                            .transformDeferredContextual(openSearchService.documentUpdates(item -> UUIDs.newId(), Function.identity())));
+        };
     }
 }
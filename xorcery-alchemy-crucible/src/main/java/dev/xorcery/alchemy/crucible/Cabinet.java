@@ -26,37 +26,45 @@ import org.glassfish.hk2.api.IterableProvider;
 import org.glassfish.hk2.api.ServiceHandle;
 import org.jvnet.hk2.annotations.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class Cabinet {
 
-    private final IterableProvider<Jar> jars;
     private final CabinetConfiguration cabinetConfiguration;
+    private final Map<String, ServiceHandle<Jar>> sourceJarHandles = new LinkedHashMap<>();
+    private final Map<String, ServiceHandle<Jar>> transmuteJarHandles = new LinkedHashMap<>();
+    private final Map<String, SourceJar> sourceJars = new ConcurrentHashMap<>();
+    private final Map<String, TransmuteJar> transmuteJars = new ConcurrentHashMap<>();
 
     @Inject
     public Cabinet(IterableProvider<Jar> jars, Configuration configuration, Logger logger) {
-        this.jars = jars;
         this.cabinetConfiguration = CabinetConfiguration.get(configuration);
 
-        logger.info("Source jars:" + String.join(",", StreamSupport.stream(jars.handleIterator().spliterator(), false)
-                .filter(h -> SourceJar.class.isAssignableFrom(h.getActiveDescriptor().getImplementationClass()))
-                .map(this::getJarName).toList()));
-        logger.info("Transmute jars:" + String.join(",", StreamSupport.stream(jars.handleIterator().spliterator(), false)
-                .filter(h -> TransmuteJar.class.isAssignableFrom(h.getActiveDescriptor().getImplementationClass()))
-                .map(this::getJarName).toList()));
+        for (ServiceHandle<Jar> jar : jars.handleIterator()) {
+            Class<?> implementationClass = jar.getActiveDescriptor().getImplementationClass();
+            if (SourceJar.class.isAssignableFrom(implementationClass))
+                sourceJarHandles.putIfAbsent(getJarName(jar), jar);
+            if (TransmuteJar.class.isAssignableFrom(implementationClass))
+                transmuteJarHandles.putIfAbsent(getJarName(jar), jar);
+        }
+
+        logger.info("Source jars:" + String.join(",", sourceJarHandles.keySet()));
+        logger.info("Transmute jars:" + String.join(",", transmuteJarHandles.keySet()));
     }
 
     public Optional<SourceJar> getSourceJar(String jarName) {
-
-        for (ServiceHandle<Jar> jar : jars.handleIterator()) {
-            if (getJarName(jar).equals(jarName) &&
-                    SourceJar.class.isAssignableFrom(jar.getActiveDescriptor().getImplementationClass())) {
-                return Optional.of((SourceJar) jar.getService());
-            }
+        SourceJar sourceJar = sourceJars.get(jarName);
+        if (sourceJar == null) {
+            ServiceHandle<Jar> handle = sourceJarHandles.get(jarName);
+            if (handle == null)
+                return Optional.empty();
+            sourceJar = sourceJars.computeIfAbsent(jarName, name -> (SourceJar) handle.getService());
         }
-        return Optional.empty();
+        return Optional.of(sourceJar);
     }
 
     public Optional<JarConfiguration> getSourceJarConfiguration(String jarName){
@@ -64,14 +72,14 @@ public class Cabinet {
     }
 
     public Optional<TransmuteJar> getTransmuteJar(String jarName) {
-
-        for (ServiceHandle<Jar> jar : jars.handleIterator()) {
-            if (getJarName(jar).equals(jarName) &&
-                    TransmuteJar.class.isAssignableFrom(jar.getActiveDescriptor().getImplementationClass())) {
-                return Optional.of((TransmuteJar) jar.getService());
-            }
+        TransmuteJar transmuteJar = transmuteJars.get(jarName);
+        if (transmuteJar == null) {
+            ServiceHandle<Jar> handle = transmuteJarHandles.get(jarName);
+            if (handle == null)
+                return Optional.empty();
+            transmuteJar = transmuteJars.computeIfAbsent(jarName, name -> (TransmuteJar) handle.getService());
         }
-        return Optional.empty();
+        return Optional.of(transmuteJar);
     }
 
     public Optional<JarConfiguration> getTransmuteJarConfiguration(String jarName){
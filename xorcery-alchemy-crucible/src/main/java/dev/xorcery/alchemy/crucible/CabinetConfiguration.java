@@ -19,29 +19,34 @@ import dev.xorcery.alchemy.jar.JarConfiguration;
 import dev.xorcery.configuration.Configuration;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 
-public record CabinetConfiguration(List<JarConfiguration> sourceJars, List<JarConfiguration> transmuteJars) {
+public record CabinetConfiguration(Map<String, JarConfiguration> sourceJars, Map<String, JarConfiguration> transmuteJars) {
 
     public static CabinetConfiguration get(Configuration configuration)
     {
-        return new CabinetConfiguration(configuration.getObjectListAs("jars.sourcejars",
-                json ->new JarConfiguration(new Configuration(json))).orElse(Collections.emptyList()),
-                configuration.getObjectListAs("jars.transmutejars",
-                        json ->new JarConfiguration(new Configuration(json))).orElse(Collections.emptyList()));
+        return new CabinetConfiguration(byName(configuration.getObjectListAs("jars.sourcejars",
+                json ->new JarConfiguration(new Configuration(json))).orElse(Collections.emptyList())),
+                byName(configuration.getObjectListAs("jars.transmutejars",
+                        json ->new JarConfiguration(new Configuration(json))).orElse(Collections.emptyList())));
     }
 
     public Optional<JarConfiguration> getSourceJar(String name) {
-        return sourceJars.stream()
-                .filter(sourceJar -> Objects.equals(sourceJar.getName().orElse(null), name))
-                .findFirst();
+        return Optional.ofNullable(sourceJars.get(name));
     }
 
     public Optional<JarConfiguration> getTransmuteJar(String name) {
-        return transmuteJars.stream()
-                .filter(transmuteJar -> Objects.equals(transmuteJar.getName().orElse(null), name))
-                .findFirst();
+        return Optional.ofNullable(transmuteJars.get(name));
+    }
+
+    private static Map<String, JarConfiguration> byName(List<JarConfiguration> jars) {
+        Map<String, JarConfiguration> jarsByName = new LinkedHashMap<>();
+        for (JarConfiguration jar : jars) {
+            jar.getName().ifPresent(name -> jarsByName.putIfAbsent(name, jar));
+        }
+        return Collections.unmodifiableMap(jarsByName);
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.crucible;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.StandardMetadata;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import jakarta.inject.Inject;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.hk2.api.PreDestroy;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores the last streamPosition that made it through a transmutation, per transmutation name and configured sourceUrl,
+ * and puts it into the context of the transmutation when it is started again. Sources that follow files across
+ * rotation also put the identity of the file into streamFile, which is stored and put into the context along with it.
+ * <p>
+ * The last position is only a safe resume point if items arrive in source order, so transmutations with stages that
+ * reorder items, a partition jar or any jar with ordered: false, are not checkpointed.
+ * <p>
+ * Checkpoints are written periodically to a local JSON file, and removed when a transmutation completes.
+ */
+@Service(name = "crucible.checkpoints", metadata = "enabled=crucible.enabled")
+public class Checkpoints
+        implements PreDestroy {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled;
+    private final Path path;
+    private final Logger logger;
+    private final Map<String, Map<String, Checkpoint>> checkpoints = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Disposable flusher;
+
+    @Inject
+    public Checkpoints(Configuration configuration, VirtualThreadScheduler virtualThreadScheduler, Logger logger) {
+        Configuration checkpointsConfiguration = configuration.getConfiguration("crucible.checkpoints");
+        this.enabled = checkpointsConfiguration.getBoolean("enabled").orElse(false);
+        this.path = Path.of(checkpointsConfiguration.getString("path").orElse("checkpoints.json"));
+        this.logger = logger;
+
+        if (enabled) {
+            load();
+            long interval = Duration.parse("PT" + checkpointsConfiguration.getString("interval").orElse("10s")).toMillis();
+            flusher = virtualThreadScheduler.getScheduler().schedulePeriodically(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = Disposables.disposed();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param streamFile identity of the file streamPosition is in, or null
+     */
+    public record Checkpoint(long streamPosition, String streamFile) {
+    }
+
+    public Optional<Checkpoint> getCheckpoint(String transmutation, String sourceUrl) {
+        return Optional.ofNullable(checkpoints.get(transmutation)).map(positions -> positions.get(sourceUrl));
+    }
+
+    public Optional<Long> getStreamPosition(String transmutation, String sourceUrl) {
+        return getCheckpoint(transmutation, sourceUrl).map(Checkpoint::streamPosition);
+    }
+
+    public void setStreamPosition(String transmutation, String sourceUrl, long streamPosition) {
+        setStreamPosition(transmutation, sourceUrl, streamPosition, null);
+    }
+
+    public void setStreamPosition(String transmutation, String sourceUrl, long streamPosition, String streamFile) {
+        checkpoints.computeIfAbsent(transmutation, name -> new ConcurrentHashMap<>()).put(sourceUrl, new Checkpoint(streamPosition, streamFile));
+        dirty.set(true);
+    }
+
+    public void remove(String transmutation) {
+        if (checkpoints.remove(transmutation) != null)
+            dirty.set(true);
+    }
+
+    /**
+     * Resume the transmutation from its checkpoint, unless a streamPosition is already in the context,
+     * and record the streamPosition of every item that reaches the end of the transmutation.
+     */
+    public Flux<MetadataJsonNode<JsonNode>> apply(Flux<MetadataJsonNode<JsonNode>> flux, TransmutationConfiguration transmutationConfiguration) {
+        String transmutation = transmutationConfiguration.getName().or(transmutationConfiguration::getRecipe).orElse(null);
+        if (transmutation == null)
+            return flux;
+        if (isReordering(transmutationConfiguration.getSource().configuration().json())
+                || transmutationConfiguration.getTransmutes().stream().anyMatch(transmute -> isReordering(transmute.configuration().json()))) {
+            logger.warn("Not checkpointing {}, as it has stages that do not keep source order", transmutation);
+            return flux;
+        }
+        // Sources put their resolved URL into the item metadata, so the configured sourceUrl is used as the key on both sides
+        String sourceUrl = transmutationConfiguration.getSource().getString(JarContext.sourceUrl).orElse("");
+
+        return flux
+                .doOnNext(item ->
+                {
+                    JsonNode streamPosition = item.metadata().json().get(StandardMetadata.streamPosition.name());
+                    if (streamPosition != null && streamPosition.canConvertToLong()) {
+                        JsonNode streamFile = item.metadata().json().get(StandardMetadata.streamFile.name());
+                        setStreamPosition(transmutation, sourceUrl, streamPosition.longValue(), streamFile == null ? null : streamFile.asText());
+                    }
+                })
+                .doOnComplete(() -> remove(transmutation))
+                .contextWrite(context -> context.hasKey(JarContext.streamPosition.name())
+                        ? context
+                        : getCheckpoint(transmutation, sourceUrl)
+                        .map(checkpoint ->
+                        {
+                            logger.info("Resuming {} from streamPosition {}", transmutation, checkpoint.streamPosition());
+                            return checkpoint.streamFile() == null
+                                    ? context.put(JarContext.streamPosition.name(), checkpoint.streamPosition())
+                                    : context.put(JarContext.streamPosition.name(), checkpoint.streamPosition())
+                                    .put(JarContext.streamFile.name(), checkpoint.streamFile());
+                        })
+                        .orElse(context));
+    }
+
+    /**
+     * @return true if the jar configuration, or any jar nested in it, is a partition jar or has ordered: false
+     */
+    static boolean isReordering(JsonNode json) {
+        if (json instanceof ObjectNode objectNode) {
+            if (objectNode.path("jar").asText().equals("partition"))
+                return true;
+            JsonNode ordered = objectNode.get("ordered");
+            if (ordered != null && ordered.asText().equals("false"))
+                return true;
+        }
+        for (JsonNode child : json) {
+            if (isReordering(child))
+                return true;
+        }
+        return false;
+    }
+
+    public synchronized void flush() {
+        if (!dirty.getAndSet(false))
+            return;
+
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        checkpoints.forEach((transmutation, positions) ->
+        {
+            ObjectNode positionsJson = json.putObject(transmutation);
+            positions.forEach((sourceUrl, checkpoint) ->
+            {
+                if (checkpoint.streamFile() == null)
+                    positionsJson.put(sourceUrl, checkpoint.streamPosition());
+                else
+                    positionsJson.putObject(sourceUrl)
+                            .put(JarContext.streamPosition.name(), checkpoint.streamPosition())
+                            .put(JarContext.streamFile.name(), checkpoint.streamFile());
+            });
+        });
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tmp.toFile(), json);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            logger.warn("Could not write checkpoints to " + path, e);
+        }
+    }
+
+    @Override
+    public void preDestroy() {
+        flusher.dispose();
+        if (enabled)
+            flush();
+    }
+
+    private void load() {
+        if (!Files.exists(path))
+            return;
+
+        try {
+            JsonNode json = objectMapper.readTree(path.toFile());
+            json.properties().forEach(transmutation ->
+                    transmutation.getValue().properties().forEach(position ->
+                    {
+                        JsonNode checkpoint = position.getValue();
+                        if (checkpoint.isObject())
+                            setStreamPosition(transmutation.getKey(), position.getKey(),
+                                    checkpoint.path(JarContext.streamPosition.name()).longValue(),
+                                    checkpoint.path(JarContext.streamFile.name()).textValue());
+                        else
+                            setStreamPosition(transmutation.getKey(), position.getKey(), checkpoint.longValue());
+                    }));
+            dirty.set(false);
+        } catch (IOException e) {
+            logger.warn("Could not read checkpoints from " + path, e);
+        }
+    }
+}
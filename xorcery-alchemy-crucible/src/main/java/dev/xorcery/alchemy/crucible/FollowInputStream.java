@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.crucible;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * InputStream that follows a growing file, like tail -F. At the end of the file reads block and poll for appended
+ * bytes with an exponential back-off up to maxDelay. If the file is replaced (different file key) or truncated the
+ * remaining bytes of the old file are read first, and then reading continues from the start of the new file.
+ * If endOfFileOnRotation is set reads instead return -1 at the end of the old file, and reading continues in the new
+ * file after {@link #nextFile()}, so readers that buffer can tell which file the bytes they read came from.
+ * <p>
+ * Reads only end when the stream is closed, which may be done from another thread, so it should be read from
+ * a thread that may block, such as the {@link VirtualThreadScheduler}.
+ */
+public class FollowInputStream
+        extends InputStream {
+
+    private static final long MIN_DELAY_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final Path path;
+    private final boolean skipFirstLineOnRotation;
+    private final boolean endOfFileOnRotation;
+    private final long maxDelayNanos;
+
+    private FileChannel channel;
+    private Object fileKey;
+    private boolean skipLine;
+    private volatile long rotations;
+    private boolean rotated;
+    private long delayNanos = MIN_DELAY_NANOS;
+    private volatile boolean closed;
+    private volatile Thread reader;
+
+    /**
+     * @param position                start position, if the file is shorter than this it is read from the start
+     * @param skipFirstLineOnRotation skip the first line of rotated files, such as a CSV header
+     */
+    public FollowInputStream(Path path, long position, boolean skipFirstLineOnRotation, Duration maxDelay) throws IOException {
+        this(path, position, skipFirstLineOnRotation, false, maxDelay);
+    }
+
+    /**
+     * @param position                start position, if the file is shorter than this it is read from the start
+     * @param skipFirstLineOnRotation skip the first line of rotated files, such as a CSV header
+     * @param endOfFileOnRotation     end reads at the end of a rotated file, until {@link #nextFile()} is called
+     */
+    public FollowInputStream(Path path, long position, boolean skipFirstLineOnRotation, boolean endOfFileOnRotation, Duration maxDelay) throws IOException {
+        this.path = path;
+        this.skipFirstLineOnRotation = skipFirstLineOnRotation;
+        this.endOfFileOnRotation = endOfFileOnRotation;
+        this.maxDelayNanos = Math.max(maxDelay.toNanos(), MIN_DELAY_NANOS);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        channel.position(position <= channel.size() ? position : 0);
+    }
+
+    /**
+     * @return position in the current file
+     */
+    public long getPosition() throws IOException {
+        return channel.position();
+    }
+
+    /**
+     * @return number of times the file has been rotated, after which {@link #getPosition()} is in the new file
+     */
+    public long getRotations() {
+        return rotations;
+    }
+
+    /**
+     * @return identity of the file currently read, see {@link #getFileId(Path)}
+     */
+    public String getFileId() {
+        return fileKey == null ? null : fileKey.toString();
+    }
+
+    /**
+     * Identity of a file, which stays the same when it grows but changes when it is replaced by a new file, so
+     * positions can be tied to the file they are in. Truncating a file in place keeps its identity.
+     *
+     * @return the file key, or null if the file system has none
+     */
+    public static String getFileId(Path path) throws IOException {
+        Object fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        return fileKey == null ? null : fileKey.toString();
+    }
+
+    /**
+     * Continue reading in the new file, after a read returned -1 because the file was rotated.
+     *
+     * @return false if the file was not rotated, or the stream is closed
+     */
+    public boolean nextFile() throws IOException {
+        if (!rotated || closed)
+            return false;
+
+        reader = Thread.currentThread();
+        try {
+            while (!closed) {
+                try {
+                    reopen();
+                    rotated = false;
+                    return true;
+                } catch (NoSuchFileException e) {
+                    // Moved away again, wait for the new file
+                    await();
+                }
+            }
+            return false;
+        } finally {
+            reader = null;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0)
+            return 0;
+
+        reader = Thread.currentThread();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (!closed) {
+                if (rotated)
+                    return -1;
+                if (skipLine && (skipLine = skipLine())) {
+                    await();
+                    continue;
+                }
+
+                int read = channel.read(buffer);
+                if (read > 0) {
+                    delayNanos = MIN_DELAY_NANOS;
+                    return read;
+                }
+
+                if (isRotated()) {
+                    // Drain what was appended to the old file before switching
+                    if ((read = channel.read(buffer)) > 0)
+                        return read;
+                    if (endOfFileOnRotation) {
+                        rotated = true;
+                        return -1;
+                    }
+                    try {
+                        reopen();
+                        continue;
+                    } catch (NoSuchFileException e) {
+                        // Moved away again, wait for the new file
+                    }
+                }
+                await();
+            }
+            return -1;
+        } catch (ClosedChannelException e) {
+            if (closed)
+                return -1;
+            throw e;
+        } finally {
+            reader = null;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return closed ? 0 : (int) Math.min(Math.max(channel.size() - channel.position(), 0), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Thread current = reader;
+        if (current != null)
+            LockSupport.unpark(current);
+        channel.close();
+    }
+
+    /**
+     * @return true if the end of the line has not been written yet
+     */
+    private boolean skipLine() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        int read;
+        while ((read = channel.read(buffer.clear())) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    channel.position(channel.position() - read + i + 1);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isRotated() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return (fileKey != null && !fileKey.equals(attributes.fileKey()))
+                    || attributes.size() < channel.position();
+        } catch (NoSuchFileException e) {
+            // Moved away, wait for the new file
+            return false;
+        }
+    }
+
+    private void reopen() throws IOException {
+        FileChannel newChannel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.close();
+        channel = newChannel;
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        skipLine = skipFirstLineOnRotation;
+        rotations++;
+        delayNanos = MIN_DELAY_NANOS;
+    }
+
+    private void await() {
+        LockSupport.parkNanos(this, delayNanos);
+        delayNanos = Math.min(delayNanos * 2, maxDelayNanos);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.crucible;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+
+/**
+ * Runs a chain of item transmutes as a single handle stage. Each stage passes its output directly to the next stage.
+ * <p>
+ * Instances are stateful and must be created per subscription.
+ */
+class FusedItemTransmute
+        implements ItemTransmute {
+
+    private final ItemTransmute[] stages;
+    private final StageSink[] sinks;
+    private SynchronousSink<MetadataJsonNode<JsonNode>> downstream;
+
+    FusedItemTransmute(List<ItemTransmute> stages) {
+        this.stages = stages.toArray(new ItemTransmute[0]);
+        this.sinks = new StageSink[this.stages.length];
+        for (int i = 0; i < sinks.length; i++) {
+            sinks[i] = new StageSink(i + 1);
+        }
+    }
+
+    @Override
+    public void accept(MetadataJsonNode<JsonNode> item, SynchronousSink<MetadataJsonNode<JsonNode>> sink) {
+        downstream = sink;
+        stages[0].accept(item, sinks[0]);
+    }
+
+    private class StageSink
+            implements SynchronousSink<MetadataJsonNode<JsonNode>> {
+        private final int next;
+
+        StageSink(int next) {
+            this.next = next;
+        }
+
+        @Override
+        public void next(MetadataJsonNode<JsonNode> item) {
+            if (next < stages.length)
+                stages[next].accept(item, sinks[next]);
+            else
+                downstream.next(item);
+        }
+
+        @Override
+        public void complete() {
+            downstream.complete();
+        }
+
+        @Override
+        public void error(Throwable e) {
+            downstream.error(e);
+        }
+
+        @Override
+        @Deprecated
+        public Context currentContext() {
+            return downstream.currentContext();
+        }
+
+        @Override
+        public ContextView contextView() {
+            return downstream.contextView();
+        }
+    }
+}
@@ -19,16 +19,22 @@ import dev.xorcery.alchemy.jar.TransmutationConfiguration;
 import dev.xorcery.configuration.Configuration;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 
-public record RecipesConfiguration(List<TransmutationConfiguration> recipes) {
+public record RecipesConfiguration(List<TransmutationConfiguration> recipes, Map<String, TransmutationConfiguration> recipesByName) {
 
     public static RecipesConfiguration get(Configuration configuration){
-        return new RecipesConfiguration(configuration.getObjectListAs("recipes",
+        List<TransmutationConfiguration> recipes = configuration.getObjectListAs("recipes",
                 json -> new TransmutationConfiguration(new Configuration(json)))
-                .orElse(Collections.emptyList()));
+                .orElse(Collections.emptyList());
+        Map<String, TransmutationConfiguration> recipesByName = new HashMap<>();
+        for (TransmutationConfiguration recipe : recipes) {
+            recipe.getName().ifPresent(name -> recipesByName.putIfAbsent(name, recipe));
+        }
+        return new RecipesConfiguration(recipes, Collections.unmodifiableMap(recipesByName));
     }
 
     public List<TransmutationConfiguration> getRecipes() {
@@ -36,8 +42,6 @@ public record RecipesConfiguration(List<TransmutationConfiguration> recipes) {
     }
 
     public Optional<TransmutationConfiguration> getRecipe(String name) {
-        return recipes.stream()
-                .filter(recipe -> Objects.equals(recipe.getName().orElse(null), name))
-                .findFirst();
+        return name == null ? Optional.empty() : Optional.ofNullable(recipesByName.get(name));
     }
 }
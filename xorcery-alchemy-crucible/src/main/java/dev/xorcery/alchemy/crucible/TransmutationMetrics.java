@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.crucible;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.inject.Inject;
+import org.glassfish.hk2.api.IterableProvider;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-stage metrics for sources and transmutes, tagged with transmutation and jar name.
+ * <p>
+ * Latency is only recorded for item transmutes, as the time spent handling each item. Other transmutes may filter,
+ * split or batch items, so there is no item that leaves them for each item that enters.
+ */
+@Service(name = "crucible.metrics", metadata = "enabled=crucible.enabled")
+public class TransmutationMetrics {
+
+    private static final AttributeKey<String> TRANSMUTATION = AttributeKey.stringKey("transmutation");
+    private static final AttributeKey<String> JAR = AttributeKey.stringKey("jar");
+
+    private final boolean enabled;
+    private final LongCounter itemsIn;
+    private final LongCounter itemsOut;
+    private final LongCounter errors;
+    private final LongUpDownCounter demand;
+    private final DoubleHistogram latency;
+
+    @Inject
+    public TransmutationMetrics(Configuration configuration, IterableProvider<OpenTelemetry> openTelemetryProvider) {
+        this(configuration.getBoolean("crucible.metrics.enabled").orElse(false), openTelemetryProvider);
+    }
+
+    private TransmutationMetrics(boolean enabled, IterableProvider<OpenTelemetry> openTelemetryProvider) {
+        this(enabled, enabled ? Optional.ofNullable(openTelemetryProvider.get()).orElse(OpenTelemetry.noop()) : OpenTelemetry.noop());
+    }
+
+    public TransmutationMetrics(boolean enabled, OpenTelemetry openTelemetry) {
+        this.enabled = enabled;
+        Meter meter = openTelemetry.getMeter(getClass().getName());
+        itemsIn = meter.counterBuilder("alchemy.transmutation.items.in")
+                .setUnit("{item}")
+                .setDescription("Items received by a transmute")
+                .build();
+        itemsOut = meter.counterBuilder("alchemy.transmutation.items.out")
+                .setUnit("{item}")
+                .setDescription("Items emitted by a source or transmute")
+                .build();
+        errors = meter.counterBuilder("alchemy.transmutation.errors")
+                .setUnit("{error}")
+                .setDescription("Errors signalled by a source or transmute")
+                .build();
+        demand = meter.upDownCounterBuilder("alchemy.transmutation.demand")
+                .setUnit("{item}")
+                .setDescription("Items requested from a source or transmute but not yet emitted")
+                .build();
+        latency = meter.histogramBuilder("alchemy.transmutation.latency")
+                .setUnit("s")
+                .setDescription("Time spent by an item transmute handling an item")
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Flux<MetadataJsonNode<JsonNode>> instrumentSource(Flux<MetadataJsonNode<JsonNode>> source, JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        Attributes attributes = toAttributes(jarConfiguration, transmutationConfiguration);
+        return Flux.defer(() -> instrumentOutput(source, attributes));
+    }
+
+    public Flux<MetadataJsonNode<JsonNode>> instrumentTransmute(Flux<MetadataJsonNode<JsonNode>> upstream, Function<Flux<MetadataJsonNode<JsonNode>>, Flux<MetadataJsonNode<JsonNode>>> transmute, JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        Attributes attributes = toAttributes(jarConfiguration, transmutationConfiguration);
+        return Flux.defer(() ->
+        {
+            Flux<MetadataJsonNode<JsonNode>> input = upstream.doOnNext(item -> itemsIn.add(1, attributes));
+            return instrumentOutput(transmute.apply(input), attributes);
+        });
+    }
+
+    /**
+     * Records the time spent handling each item as latency. Items are counted by {@link #instrumentTransmute}.
+     */
+    public ItemTransmute instrumentItemTransmute(ItemTransmute itemTransmute, JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        Attributes attributes = toAttributes(jarConfiguration, transmutationConfiguration);
+        return (item, sink) ->
+        {
+            long start = System.nanoTime();
+            try {
+                itemTransmute.accept(item, sink);
+            } finally {
+                latency.record((System.nanoTime() - start) / 1_000_000_000D, attributes);
+            }
+        };
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> instrumentOutput(Flux<MetadataJsonNode<JsonNode>> flux, Attributes attributes) {
+        AtomicLong outstanding = new AtomicLong();
+        return flux
+                .doOnRequest(n ->
+                {
+                    // Unbounded requests are not demand that can be tracked
+                    if (n != Long.MAX_VALUE) {
+                        outstanding.addAndGet(n);
+                        demand.add(n, attributes);
+                    }
+                })
+                .doOnNext(item ->
+                {
+                    itemsOut.add(1, attributes);
+                    if (outstanding.getAndUpdate(v -> v > 0 ? v - 1 : v) > 0)
+                        demand.add(-1, attributes);
+                })
+                .doOnError(throwable -> errors.add(1, attributes))
+                .doFinally(signal -> demand.add(-outstanding.getAndSet(0), attributes));
+    }
+
+    private Attributes toAttributes(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return Attributes.of(
+                TRANSMUTATION, transmutationConfiguration.getName().or(transmutationConfiguration::getRecipe).orElse("crucible"),
+                JAR, jarConfiguration.getName().orElse(jarConfiguration.getJar()));
+    }
+}
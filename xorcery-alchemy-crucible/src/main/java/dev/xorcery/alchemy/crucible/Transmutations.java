@@ -18,44 +18,122 @@ package dev.xorcery.alchemy.crucible;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.jar.BatchTransmuteJar;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.ItemTransmuteJar;
 import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.SchedulerConfiguration;
+import dev.xorcery.alchemy.jar.Transmute;
 import dev.xorcery.alchemy.jar.Transmutation;
 import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.alchemy.jar.TransmuteJar;
 import dev.xorcery.configuration.Configuration;
 import dev.xorcery.json.JsonMerger;
 import dev.xorcery.reactivestreams.api.MetadataJsonNode;
 import jakarta.inject.Inject;
 import org.jvnet.hk2.annotations.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service(name = "transmutations", metadata = "enabled=crucible.enabled")
 public class Transmutations {
     private final Cabinet cabinet;
     private final Recipes recipes;
+    private final Scheduler virtualScheduler;
+    private final TransmutationMetrics metrics;
+    private final Checkpoints checkpoints;
+    private final Map<JsonNode, TransmutationConfiguration> planCache;
+    private final boolean fusion;
 
     @Inject
-    public Transmutations(Cabinet cabinet, Recipes recipes) {
+    public Transmutations(Configuration configuration, Cabinet cabinet, Recipes recipes, VirtualThreadScheduler virtualThreadScheduler, TransmutationMetrics metrics, Checkpoints checkpoints) {
         this.cabinet = cabinet;
         this.recipes = recipes;
+        this.virtualScheduler = virtualThreadScheduler.getScheduler();
+        this.metrics = metrics;
+        this.checkpoints = checkpoints;
+
+        // Fused stages can not be measured individually
+        this.fusion = configuration.getBoolean("crucible.fusion").orElse(true) && !metrics.isEnabled();
+
+        // Plans are transmutation configurations with jar defaults and recipe merged in, keyed by the given configuration
+        int planCacheSize = configuration.getInteger("crucible.planCacheSize").orElse(256);
+        this.planCache = planCacheSize > 0 ? new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<JsonNode, TransmutationConfiguration> eldest) {
+                return size() > planCacheSize;
+            }
+        } : null;
     }
 
     public Optional<Flux<MetadataJsonNode<JsonNode>>> newSourceFlux(JarConfiguration sourceConfiguration, TransmutationConfiguration recipeConfiguration) {
         return cabinet.getSourceJar(sourceConfiguration.getJar()).map(sourceJar ->
-                sourceJar.newSource(sourceConfiguration, recipeConfiguration));
+        {
+            Flux<MetadataJsonNode<JsonNode>> source = sourceJar.newSource(sourceConfiguration, recipeConfiguration);
+            return metrics.isEnabled() ? metrics.instrumentSource(source, sourceConfiguration, recipeConfiguration) : source;
+        });
     }
 
 
     public Optional<Flux<MetadataJsonNode<JsonNode>>> applyTransmuteFlux(Flux<MetadataJsonNode<JsonNode>> flux, JarConfiguration transmuteConfiguration, TransmutationConfiguration transmutationConfiguration) {
         return cabinet.getTransmuteJar(transmuteConfiguration.getJar()).map(transmuteJar ->
-                flux.transformDeferredContextual(transmuteJar.newTransmute(transmuteConfiguration, transmutationConfiguration)));
+        {
+            Transmute transmute = metrics.isEnabled() && transmuteJar instanceof ItemTransmuteJar itemTransmuteJar
+                    ? itemTransmuteJar.newItemTransmute(transmuteConfiguration, transmutationConfiguration)
+                    .<Transmute>map(itemTransmute ->
+                    {
+                        ItemTransmute timedItemTransmute = metrics.instrumentItemTransmute(itemTransmute, transmuteConfiguration, transmutationConfiguration);
+                        return (itemFlux, context) -> itemFlux.handle(timedItemTransmute);
+                    })
+                    .orElseGet(() -> transmuteJar.newTransmute(transmuteConfiguration, transmutationConfiguration))
+                    : transmuteJar.newTransmute(transmuteConfiguration, transmutationConfiguration);
+            return metrics.isEnabled()
+                    ? metrics.instrumentTransmute(flux, input -> input.transformDeferredContextual(transmute), transmuteConfiguration, transmutationConfiguration)
+                    : flux.transformDeferredContextual(transmute);
+        });
     }
 
     public Transmutation newTransmutation(final TransmutationConfiguration transmutationConfiguration) {
+        TransmutationConfiguration finalTransmutationConfiguration = getPlan(transmutationConfiguration);
+
+        // Now instantiate it
+        Flux<MetadataJsonNode<JsonNode>> sourceFlux = newSourceFlux(finalTransmutationConfiguration);
+        sourceFlux = applyScheduler(sourceFlux, finalTransmutationConfiguration.getScheduler());
+        Flux<MetadataJsonNode<JsonNode>> transmutedFlux = applyTransmutes(sourceFlux, finalTransmutationConfiguration.getTransmutes(), finalTransmutationConfiguration);
+        if (checkpoints.isEnabled())
+            transmutedFlux = checkpoints.apply(transmutedFlux, finalTransmutationConfiguration);
+        return new Transmutation(finalTransmutationConfiguration, transmutedFlux);
+    }
+
+    private TransmutationConfiguration getPlan(TransmutationConfiguration transmutationConfiguration) {
+        if (planCache == null)
+            return newPlan(transmutationConfiguration);
+
+        ObjectNode key = transmutationConfiguration.configuration().json();
+        TransmutationConfiguration plan;
+        synchronized (planCache) {
+            plan = planCache.get(key);
+        }
+        if (plan == null) {
+            // Copy so that later changes to the given configuration do not affect the cached plan
+            ObjectNode keyCopy = key.deepCopy();
+            plan = newPlan(new TransmutationConfiguration(new Configuration(keyCopy)));
+            synchronized (planCache) {
+                planCache.put(keyCopy, plan);
+            }
+        }
+        return plan;
+    }
+
+    private TransmutationConfiguration newPlan(TransmutationConfiguration transmutationConfiguration) {
         // Add jar default configurations
         JarConfiguration sourceJarConfiguration = cabinet.getSourceJarConfiguration(transmutationConfiguration.getSource().getJar()).map(defaultConfig ->
                 new JarConfiguration(new Configuration(new JsonMerger().merge(defaultConfig.configuration().json(), transmutationConfiguration.getSource().configuration().json()))))
@@ -72,19 +150,15 @@ public class Transmutations {
         transmutationJson.set("transmutes", JsonNodeFactory.instance.arrayNode().addAll(transmuteConfigurations));
         transmutationConfiguration.getName().ifPresent(name -> transmutationJson.set("name", JsonNodeFactory.instance.textNode(name)));
         transmutationConfiguration.getRecipe().ifPresent(name -> transmutationJson.set("recipe", JsonNodeFactory.instance.textNode(name)));
+        if (transmutationConfiguration.configuration().json().get("scheduler") instanceof ObjectNode schedulerJson)
+            transmutationJson.set("scheduler", schedulerJson);
 
         TransmutationConfiguration transmutationConfigurationWithDefaults = new TransmutationConfiguration(new Configuration(transmutationJson));
 
         // Add recipe configuration
-        TransmutationConfiguration finalTransmutationConfiguration = recipes.getRecipeByName(transmutationConfigurationWithDefaults.getRecipe().orElse(null))
+        return recipes.getRecipeByName(transmutationConfigurationWithDefaults.getRecipe().orElse(null))
                 .map(existingRecipe -> new TransmutationConfiguration(new Configuration(new JsonMerger().apply(existingRecipe.configuration().json(), transmutationConfigurationWithDefaults.configuration().json()))))
                 .orElse(transmutationConfiguration);
-
-        // Now instantiate it
-        Flux<MetadataJsonNode<JsonNode>> sourceFlux = newSourceFlux(finalTransmutationConfiguration);
-        sourceFlux = sourceFlux.publishOn(Schedulers.boundedElastic(), 512);
-        Flux<MetadataJsonNode<JsonNode>> transmutedFlux = applyTransmutes(sourceFlux, finalTransmutationConfiguration);
-        return new Transmutation(finalTransmutationConfiguration, transmutedFlux);
     }
 
     private Flux<MetadataJsonNode<JsonNode>> newSourceFlux(TransmutationConfiguration transmutationConfiguration) {
@@ -93,15 +167,78 @@ public class Transmutations {
                 .orElseThrow(() -> new IllegalArgumentException("No source jar named:" + sourceConfiguration.getJar()));
     }
 
-    private Flux<MetadataJsonNode<JsonNode>> applyTransmutes(final Flux<MetadataJsonNode<JsonNode>> sourceFlux, TransmutationConfiguration transmutationConfiguration) {
-        List<JarConfiguration> transmutes = transmutationConfiguration.getTransmutes();
-        Flux<MetadataJsonNode<JsonNode>> transmutedFlux = sourceFlux;
+    public Flux<MetadataJsonNode<JsonNode>> applyScheduler(Flux<MetadataJsonNode<JsonNode>> flux, SchedulerConfiguration schedulerConfiguration) {
+        int prefetch = schedulerConfiguration.getPrefetch().orElse(SchedulerConfiguration.DEFAULT_PREFETCH);
+        // publishOn replenishes at 75% of prefetch, a custom low tide is applied by limiting upstream requests
+        if (schedulerConfiguration.getLowTide().isPresent() ||
+                (schedulerConfiguration.getKind() == SchedulerConfiguration.Kind.immediate && schedulerConfiguration.getPrefetch().isPresent())) {
+            flux = flux.limitRate(prefetch, schedulerConfiguration.getLowTide().orElse(prefetch - (prefetch >> 2)));
+        }
+        return switch (schedulerConfiguration.getKind()) {
+            case immediate -> flux;
+            case parallel -> flux.publishOn(Schedulers.parallel(), prefetch);
+            case boundedElastic -> flux.publishOn(Schedulers.boundedElastic(), prefetch);
+            case virtual -> flux.publishOn(virtualScheduler, prefetch);
+        };
+    }
+
+    public Flux<MetadataJsonNode<JsonNode>> applyTransmutes(final Flux<MetadataJsonNode<JsonNode>> flux, List<JarConfiguration> transmutes, TransmutationConfiguration transmutationConfiguration) {
+        Flux<MetadataJsonNode<JsonNode>> transmutedFlux = flux;
+        // Consecutive item transmutes are fused into a single handle stage, and consecutive batch transmutes share batches
+        List<ItemTransmute> itemTransmutes = new ArrayList<>();
+        List<JarConfiguration> batchTransmutes = new ArrayList<>();
         for (JarConfiguration transmuteConfiguration : transmutes) {
             if (transmuteConfiguration.isEnabled()) {
+                TransmuteJar transmuteJar = cabinet.getTransmuteJar(transmuteConfiguration.getJar())
+                        .orElseThrow(() -> new IllegalArgumentException("No transmute jar named:" + transmuteConfiguration.getJar()));
+                if (fusion && transmuteJar instanceof ItemTransmuteJar itemTransmuteJar) {
+                    Optional<ItemTransmute> itemTransmute = itemTransmuteJar.newItemTransmute(transmuteConfiguration, transmutationConfiguration);
+                    if (itemTransmute.isPresent()) {
+                        transmutedFlux = applyBatchTransmutes(transmutedFlux, batchTransmutes, transmutationConfiguration);
+                        itemTransmutes.add(itemTransmute.get());
+                        continue;
+                    }
+                }
+                if (!metrics.isEnabled() && transmuteJar instanceof BatchTransmuteJar) {
+                    transmutedFlux = applyItemTransmutes(transmutedFlux, itemTransmutes);
+                    batchTransmutes.add(transmuteConfiguration);
+                    continue;
+                }
+                transmutedFlux = applyItemTransmutes(transmutedFlux, itemTransmutes);
+                transmutedFlux = applyBatchTransmutes(transmutedFlux, batchTransmutes, transmutationConfiguration);
                 transmutedFlux = applyTransmuteFlux(transmutedFlux, transmuteConfiguration, transmutationConfiguration)
                         .orElseThrow(() -> new IllegalArgumentException("No transmute jar named:" + transmuteConfiguration.getJar()));
             }
         }
-        return transmutedFlux;
+        transmutedFlux = applyItemTransmutes(transmutedFlux, itemTransmutes);
+        return applyBatchTransmutes(transmutedFlux, batchTransmutes, transmutationConfiguration);
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> applyBatchTransmutes(Flux<MetadataJsonNode<JsonNode>> flux, List<JarConfiguration> batchTransmutes, TransmutationConfiguration transmutationConfiguration) {
+        if (batchTransmutes.isEmpty())
+            return flux;
+        List<JarConfiguration> stages = List.copyOf(batchTransmutes);
+        batchTransmutes.clear();
+        if (stages.size() == 1)
+            return applyTransmuteFlux(flux, stages.get(0), transmutationConfiguration).orElseThrow();
+
+        // Batches are sized by the first batch transmute
+        JarConfiguration first = stages.get(0);
+        Flux<List<MetadataJsonNode<JsonNode>>> batches = flux.bufferTimeout(BatchTransmuteJar.getBatchSize(first), BatchTransmuteJar.getBatchTimeout(first), true);
+        for (JarConfiguration stage : stages) {
+            BatchTransmuteJar batchTransmuteJar = (BatchTransmuteJar) cabinet.getTransmuteJar(stage.getJar()).orElseThrow();
+            batches = batches.transformDeferredContextual(batchTransmuteJar.newBatchTransmute(stage, transmutationConfiguration));
+        }
+        return batches.flatMapIterable(Function.identity());
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> applyItemTransmutes(Flux<MetadataJsonNode<JsonNode>> flux, List<ItemTransmute> itemTransmutes) {
+        if (itemTransmutes.isEmpty())
+            return flux;
+        List<ItemTransmute> stages = List.copyOf(itemTransmutes);
+        itemTransmutes.clear();
+        return stages.size() == 1
+                ? flux.handle(stages.get(0))
+                : flux.transformDeferred(f -> f.handle(new FusedItemTransmute(stages)));
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.crucible;
+
+import dev.xorcery.configuration.Configuration;
+import jakarta.inject.Inject;
+import org.glassfish.hk2.api.PreDestroy;
+import org.jvnet.hk2.annotations.Service;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Shared scheduler backed by virtual threads, for jars that do blocking reads or writes.
+ */
+@Service(name = "crucible.virtualthreads", metadata = "enabled=crucible.enabled")
+public class VirtualThreadScheduler
+        implements PreDestroy {
+
+    private final Scheduler scheduler;
+
+    @Inject
+    public VirtualThreadScheduler(Configuration configuration) {
+        Configuration virtualThreadsConfiguration = configuration.getConfiguration("crucible.virtualThreads");
+        int threadCap = virtualThreadsConfiguration.getInteger("threadCap").filter(v -> v > 0).orElse(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE);
+        int queuedTaskCap = virtualThreadsConfiguration.getInteger("queuedTaskCap").filter(v -> v > 0).orElse(Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE);
+        int ttlSeconds = virtualThreadsConfiguration.getInteger("ttl").filter(v -> v > 0).orElse(60);
+        this.scheduler = Schedulers.newBoundedElastic(threadCap, queuedTaskCap,
+                Thread.ofVirtual().name("crucible-virtual-", 0).factory(), ttlSeconds);
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void preDestroy() {
+        scheduler.dispose();
+    }
+}
@@ -27,4 +27,5 @@ open module xorcery.alchemy.crucible {
     requires org.slf4j;
     requires java.logging;
     requires org.apache.logging.log4j.core;
+    requires io.opentelemetry.api;
 }
\ No newline at end of file
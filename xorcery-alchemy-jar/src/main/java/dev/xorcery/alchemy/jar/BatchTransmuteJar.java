@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.jar;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Transmute jar that processes items in batches, bounded by batch.size and batch.timeout in the jar configuration.
+ * Consecutive batch transmutes in a transmutation share the same batches.
+ */
+public interface BatchTransmuteJar
+    extends TransmuteJar
+{
+    int DEFAULT_BATCH_SIZE = 256;
+    Duration DEFAULT_BATCH_TIMEOUT = Duration.ofSeconds(1);
+
+    BatchTransmute newBatchTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration);
+
+    @Override
+    default Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        BatchTransmute batchTransmute = newBatchTransmute(jarConfiguration, transmutationConfiguration);
+        int batchSize = getBatchSize(jarConfiguration);
+        Duration batchTimeout = getBatchTimeout(jarConfiguration);
+        return (flux, context) -> flux
+                .bufferTimeout(batchSize, batchTimeout, true)
+                .transformDeferredContextual(batchTransmute)
+                .flatMapIterable(Function.identity());
+    }
+
+    static int getBatchSize(JarConfiguration jarConfiguration) {
+        return jarConfiguration.getInteger("batch.size").filter(size -> size > 0).orElse(DEFAULT_BATCH_SIZE);
+    }
+
+    static Duration getBatchTimeout(JarConfiguration jarConfiguration) {
+        return jarConfiguration.getString("batch.timeout").map(timeout -> Duration.parse("PT" + timeout)).orElse(DEFAULT_BATCH_TIMEOUT);
+    }
+}
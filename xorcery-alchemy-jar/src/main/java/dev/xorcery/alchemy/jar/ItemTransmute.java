@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.jar;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import reactor.core.publisher.SynchronousSink;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Stateless per-item transmute, which emits at most one item for each item it receives.
+ * Used with {@link reactor.core.publisher.Flux#handle(BiConsumer)}.
+ */
+public interface ItemTransmute
+    extends BiConsumer<MetadataJsonNode<JsonNode>, SynchronousSink<MetadataJsonNode<JsonNode>>>
+{
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.jar;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+
+/**
+ * Transmute jar that can provide an {@link ItemTransmute}, which allows consecutive transmutes to be fused into a single stage.
+ * Returning empty means the given configuration needs the full {@link Transmute}.
+ */
+public interface ItemTransmuteJar
+    extends TransmuteJar
+{
+    Optional<ItemTransmute> newItemTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration);
+
+    @Override
+    default Transmute newTransmute(JarConfiguration jarConfiguration, TransmutationConfiguration transmutationConfiguration) {
+        return newItemTransmute(jarConfiguration, transmutationConfiguration)
+                .<Transmute>map(itemTransmute -> (flux, context) -> flux.handle(itemTransmute))
+                .orElseGet(() -> (flux, context) -> Flux.error(new JarException(jarConfiguration, transmutationConfiguration, "Jar does not support configuration")));
+    }
+}
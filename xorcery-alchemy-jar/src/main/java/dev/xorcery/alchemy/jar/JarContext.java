@@ -22,5 +22,6 @@ public enum JarContext {
     sourceUrl,
     resultUrl,
 
-    streamPosition
+    streamPosition,
+    streamFile
 }
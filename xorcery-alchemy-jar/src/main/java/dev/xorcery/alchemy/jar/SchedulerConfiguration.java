@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.jar;
+
+import dev.xorcery.configuration.Configuration;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Execution model of a transmutation, i.e. how items are handed over from the source to the transmutes.
+ * An empty configuration gives the default of a bounded elastic scheduler with a prefetch of 512.
+ */
+public record SchedulerConfiguration(Configuration configuration) {
+
+    public enum Kind {
+        immediate,
+        parallel,
+        boundedElastic,
+        virtual
+    }
+
+    public static final int DEFAULT_PREFETCH = 512;
+
+    public Kind getKind() {
+        return configuration.getString("kind").map(kind ->
+        {
+            try {
+                return Kind.valueOf(kind);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid scheduler kind '" + kind + "', must be one of " + Arrays.toString(Kind.values()), e);
+            }
+        }).orElse(Kind.boundedElastic);
+    }
+
+    public Optional<Integer> getPrefetch() {
+        return configuration.getInteger("prefetch").filter(prefetch -> prefetch > 0);
+    }
+
+    public Optional<Integer> getLowTide() {
+        return configuration.getInteger("lowTide").filter(lowTide -> lowTide > 0);
+    }
+}
@@ -18,5 +18,7 @@ package dev.xorcery.alchemy.jar;
 public enum StandardMetadata {
     timestamp,
     streamPosition,
+    // Identity of the file streamPosition is in, for sources that follow files across rotation
+    streamFile,
     sourceUrl
 }
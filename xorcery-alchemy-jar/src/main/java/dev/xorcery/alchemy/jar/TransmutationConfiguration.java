@@ -43,4 +43,8 @@ public record TransmutationConfiguration(Configuration configuration) {
         return configuration.getObjectListAs("transmutes", json -> new JarConfiguration(new Configuration(json)))
                 .orElse(Collections.emptyList());
     }
+
+    public SchedulerConfiguration getScheduler() {
+        return new SchedulerConfiguration(configuration.getConfiguration("scheduler"));
+    }
 }
@@ -15,12 +15,34 @@
  */
 package dev.xorcery.alchemy.test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
 import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
 import dev.xorcery.configuration.builder.ConfigurationBuilder;
 import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.util.context.Context;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 public class CSVTest {
 
@@ -45,4 +67,335 @@ public class CSVTest {
             crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
         }
     }
+
+    @Test
+    public void testNativeCsvSource() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            String sourceUrl = getClass().getResource("/readcsvfilequoted.csv").toString();
+            List<MetadataJsonNode<JsonNode>> items = readNative(crucible, sourceUrl);
+
+            Assertions.assertEquals(4, items.size());
+            Assertions.assertEquals("Smith, John", items.get(0).data().path("name").asText());
+            Assertions.assertEquals("He said \"hi\"", items.get(0).data().path("comment").asText());
+            Assertions.assertEquals("multi\nline", items.get(1).data().path("comment").asText());
+            Assertions.assertEquals("plain", items.get(2).data().path("comment").asText());
+            // Backslash is the default escape character, as with opencsv
+            Assertions.assertEquals("escaped \"quote\"", items.get(3).data().path("comment").asText());
+            // streamPosition is the row number, including the blank row
+            Assertions.assertEquals(List.of(0L, 1L, 3L, 4L), items.stream().map(item -> item.metadata().json().path("streamPosition").asLong()).toList());
+
+            // By default opencsv rejects the blank row, as it does not match the header
+            ObjectNode defaultJson = JsonNodeFactory.instance.objectNode().put("name", "opencsv");
+            defaultJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("headers", true)
+                    .put("sourceUrl", sourceUrl);
+            Assertions.assertThrows(Exception.class, () -> crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(defaultJson))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30)));
+
+            // With skipBlankRows opencsv skips the blank row in the same way
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "opencsv");
+            transmutationJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("headers", true)
+                    .put("skipBlankRows", true)
+                    .put("sourceUrl", sourceUrl);
+            List<MetadataJsonNode<JsonNode>> opencsvItems = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(items.stream().map(MetadataJsonNode::data).toList(), opencsvItems.stream().map(MetadataJsonNode::data).toList());
+            Assertions.assertEquals(List.of(0L, 1L, 3L, 4L), opencsvItems.stream().map(item -> item.metadata().json().path("streamPosition").asLong()).toList());
+        }
+    }
+
+    @Test
+    public void testNativeCsvSourceChunks(@TempDir Path tempDir) throws Exception {
+        // Larger than one chunk, with quoted line breaks spread over the file
+        Path csv = tempDir.resolve("chunks.csv");
+        int rows = 600_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name,comment\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",\"Name " + i + "\"," + (i % 1000 == 0 ? "\"line\nbreak\"" : "comment") + "\n");
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            List<MetadataJsonNode<JsonNode>> items = readNative(crucible, csv.toUri().toString());
+
+            Assertions.assertEquals(rows, items.size());
+            for (int i = 0; i < rows; i++) {
+                MetadataJsonNode<JsonNode> item = items.get(i);
+                Assertions.assertEquals(i, item.metadata().json().path("streamPosition").asLong());
+                Assertions.assertEquals(Integer.toString(i), item.data().path("id").asText());
+            }
+            Assertions.assertEquals("line\nbreak", items.get(1000).data().path("comment").asText());
+
+            // Smaller chunks give the same rows
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "nativecsvchunks");
+            transmutationJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("parser", "native")
+                    .put("headers", true)
+                    .put("chunkSize", 64 * 1024)
+                    .put("sourceUrl", csv.toUri().toString());
+            List<MetadataJsonNode<JsonNode>> smallChunkItems = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(items.stream().map(MetadataJsonNode::data).toList(), smallChunkItems.stream().map(MetadataJsonNode::data).toList());
+        }
+    }
+
+    @Test
+    public void testCsvIndexResume(@TempDir Path tempDir) throws Exception {
+        Path csv = tempDir.resolve("resume.csv");
+        int rows = 200_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",\"Name " + i + "\"\n");
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            for (String parser : List.of("opencsv", "native")) {
+                Files.deleteIfExists(csv.resolveSibling("resume.csv.idx"));
+                // First resume builds the index, second one uses it
+                for (int run = 0; run < 2; run++) {
+                    ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "csvresume");
+                    transmutationJson.putObject("source")
+                            .put("jar", "csv")
+                            .put("parser", parser)
+                            .put("headers", true)
+                            .put("index", true)
+                            .put("sourceUrl", csv.toUri().toString());
+                    List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                            .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                            .contextWrite(Context.of(JarContext.streamPosition.name(), 149_999L))
+                            .collectList()
+                            .block(Duration.ofSeconds(30));
+
+                    Assertions.assertEquals(rows - 150_000, items.size(), parser);
+                    Assertions.assertEquals("150000", items.getFirst().data().path("id").asText(), parser);
+                    Assertions.assertEquals(150_000L, items.getFirst().metadata().json().path("streamPosition").asLong(), parser);
+                    Assertions.assertTrue(Files.exists(csv.resolveSibling("resume.csv.idx")), parser);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCsvTypes() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            for (String parser : List.of("opencsv", "native")) {
+                ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "csvtypes");
+                ObjectNode source = transmutationJson.putObject("source")
+                        .put("jar", "csv")
+                        .put("parser", parser)
+                        .put("headers", true)
+                        .put("inferTypes", 10)
+                        .put("sourceUrl", getClass().getResource("/readcsvfiletyped.csv").toString());
+                source.putObject("types").put("note", "string");
+                List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                        .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                        .collectList()
+                        .block(Duration.ofSeconds(10));
+
+                Assertions.assertEquals(3, items.size(), parser);
+                JsonNode first = items.getFirst().data();
+                Assertions.assertTrue(first.get("id").isInt(), parser);
+                Assertions.assertTrue(first.get("name").isTextual(), parser);
+                Assertions.assertTrue(first.get("price").isDouble(), parser);
+                Assertions.assertTrue(first.get("active").isBoolean(), parser);
+                Assertions.assertTrue(first.get("big").isLong(), parser);
+                Assertions.assertTrue(first.get("note").isTextual(), parser);
+                Assertions.assertTrue(items.get(2).data().get("price").isNull(), parser);
+                Assertions.assertTrue(items.get(2).data().get("active").booleanValue(), parser);
+                Assertions.assertEquals("7", items.get(2).data().get("note").asText(), parser);
+                // Zero-padded identifiers, and non-finite or suffixed numbers, are text
+                Assertions.assertEquals("01234", first.get("zip").asText(), parser);
+                Assertions.assertTrue(first.get("zip").isTextual(), parser);
+                Assertions.assertTrue(first.get("score").isTextual(), parser);
+                Assertions.assertTrue(first.get("ratio").isDouble(), parser);
+                Assertions.assertEquals(-0.25, items.get(2).data().get("ratio").doubleValue(), parser);
+            }
+        }
+    }
+
+    @Test
+    public void testCsvTypesWidened(@TempDir Path tempDir) throws Exception {
+        Path csv = tempDir.resolve("widened.csv");
+        Files.writeString(csv, "id,count\n1,10\n2,20\n3,4000000000\n4,99999999999999999999\n");
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            for (String parser : List.of("opencsv", "native")) {
+                ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "csvtypeswidened");
+                transmutationJson.putObject("source")
+                        .put("jar", "csv")
+                        .put("parser", parser)
+                        .put("headers", true)
+                        .put("inferTypes", 2)
+                        .put("sourceUrl", csv.toUri().toString());
+                List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                        .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                        .collectList()
+                        .block(Duration.ofSeconds(10));
+
+                Assertions.assertEquals(4, items.size(), parser);
+                Assertions.assertTrue(items.get(0).data().get("count").isInt(), parser);
+                // Values after the sampled rows that do not fit in an integer are widened, not emitted as text
+                Assertions.assertTrue(items.get(2).data().get("count").isLong(), parser);
+                Assertions.assertEquals(4000000000L, items.get(2).data().get("count").longValue(), parser);
+                Assertions.assertTrue(items.get(3).data().get("count").isBigInteger(), parser);
+                Assertions.assertEquals("99999999999999999999", items.get(3).data().get("count").bigIntegerValue().toString(), parser);
+            }
+        }
+    }
+
+    private List<MetadataJsonNode<JsonNode>> readNative(Xorcery crucible, String sourceUrl) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "nativecsv");
+        transmutationJson.putObject("source")
+                .put("jar", "csv")
+                .put("parser", "native")
+                .put("headers", true)
+                .put("sourceUrl", sourceUrl);
+        return crucible.getServiceLocator().getService(Transmutations.class)
+                .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testCsvTransmute(@TempDir Path tempDir) throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            for (boolean gzip : List.of(false, true)) {
+                Path csv = tempDir.resolve(gzip ? "result.csv.gz" : "result.csv");
+                ObjectNode writeJson = JsonNodeFactory.instance.objectNode().put("name", "csvwrite");
+                ObjectNode fields = writeJson.putObject("source")
+                        .put("jar", "generate")
+                        .put("count", 10000)
+                        .putObject("fields");
+                fields.put("id", "sequence");
+                fields.putObject("name").put("type", "string").put("length", 12);
+                fields.putObject("amount").put("type", "integer").put("min", 0).put("max", 1000);
+                writeJson.putArray("transmutes").addObject()
+                        .put("jar", "csv")
+                        .put("gzip", gzip)
+                        .put("bufferSize", 4096)
+                        .put("resultUrl", csv.toUri().toString());
+                List<MetadataJsonNode<JsonNode>> written = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(writeJson))).getFlux()
+                        .collectList()
+                        .block(Duration.ofSeconds(30));
+                Assertions.assertEquals(10000, written.size());
+
+                if (gzip) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(csv)), StandardCharsets.UTF_8))) {
+                        Assertions.assertEquals("id,name,amount", reader.readLine());
+                        Assertions.assertEquals(10000, reader.lines().count());
+                    }
+                    continue;
+                }
+
+                ObjectNode readJson = JsonNodeFactory.instance.objectNode().put("name", "csvread");
+                readJson.putObject("source")
+                        .put("jar", "csv")
+                        .put("headers", true)
+                        .put("sourceUrl", csv.toUri().toString());
+                List<MetadataJsonNode<JsonNode>> read = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(readJson))).getFlux()
+                        .collectList()
+                        .block(Duration.ofSeconds(30));
+                Assertions.assertEquals(written.size(), read.size());
+                for (int i = 0; i < written.size(); i++) {
+                    JsonNode expected = written.get(i).data();
+                    JsonNode actual = read.get(i).data();
+                    Assertions.assertEquals(expected.path("id").asText(), actual.path("id").asText());
+                    Assertions.assertEquals(expected.path("name").asText(), actual.path("name").asText());
+                    Assertions.assertEquals(expected.path("amount").asText(), actual.path("amount").asText());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCsvFollow(@TempDir Path tempDir) throws Exception {
+        Path csv = tempDir.resolve("follow.csv");
+        Files.writeString(csv, "id,name\n0,a\n1,b\n");
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "csvfollow");
+            transmutationJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("headers", true)
+                    .put("follow", true)
+                    .put("followDelay", "0.05s")
+                    .put("sourceUrl", csv.toUri().toString());
+            CompletableFuture<List<MetadataJsonNode<JsonNode>>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .take(6)
+                    .collectList()
+                    .toFuture();
+
+            Thread.sleep(200);
+            Files.writeString(csv, "2,c\n3,d\n", StandardOpenOption.APPEND);
+            Thread.sleep(200);
+            // Rotate, the new file has its own header
+            Files.move(csv, tempDir.resolve("follow.csv.1"));
+            Files.writeString(csv, "id,name\n4,e\n5,f\n");
+
+            List<MetadataJsonNode<JsonNode>> result = items.get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < result.size(); i++) {
+                Assertions.assertEquals(String.valueOf(i), result.get(i).data().path("id").asText());
+                // Row numbers are per file
+                Assertions.assertEquals(i < 4 ? i : i - 4, result.get(i).metadata().json().path("streamPosition").asLong());
+            }
+            String rotatedFile = result.get(3).metadata().json().path("streamFile").asText();
+            String currentFile = result.get(4).metadata().json().path("streamFile").asText();
+            Assertions.assertFalse(rotatedFile.isEmpty());
+            Assertions.assertNotEquals(rotatedFile, currentFile);
+
+            // Resume after the first row of the new file
+            Files.writeString(csv, "6,g\n", StandardOpenOption.APPEND);
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), 0L, JarContext.streamFile.name(), currentFile))
+                    .take(2)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(List.of("5", "6"), resumed.stream().map(item -> item.data().path("id").asText()).toList());
+
+            // Resume after the last row of the rotated file reads the new file from the start
+            resumed = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), 3L, JarContext.streamFile.name(), rotatedFile))
+                    .take(3)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(List.of("4", "5", "6"), resumed.stream().map(item -> item.data().path("id").asText()).toList());
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Checkpoints;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class CheckpointsTest {
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testCheckpoints.yaml")
+                .build()))
+        {
+            Checkpoints checkpoints = crucible.getServiceLocator().getService(Checkpoints.class);
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            ObjectNode source = JsonNodeFactory.instance.objectNode()
+                    .put("jar", "csv")
+                    .put("separator", ";")
+                    .put("sourceUrl", "resource://readcsvfile.csv");
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode()
+                    .put("name", "checkpoint");
+            transmutationJson.set("source", source);
+            TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+            // First row was already processed
+            checkpoints.setStreamPosition("checkpoint", "resource://readcsvfile.csv", 0);
+
+            List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            Assertions.assertEquals(2, items.size());
+            Assertions.assertEquals(1, items.get(0).metadata().json().path("streamPosition").longValue());
+            Assertions.assertTrue(checkpoints.getStreamPosition("checkpoint", "resource://readcsvfile.csv").isEmpty());
+        }
+    }
+
+    @Test
+    public void testCheckpointFileUrl(@TempDir Path tempDir) throws Exception {
+        Path csv = tempDir.resolve("rows.csv");
+        Files.writeString(csv, "id\n1\n2\n3\n4\n5\n");
+        // Configured as file:///..., while the source reports file:/... in the item metadata
+        String sourceUrl = csv.toUri().toString();
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testCheckpoints.yaml")
+                .build()))
+        {
+            Checkpoints checkpoints = crucible.getServiceLocator().getService(Checkpoints.class);
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode()
+                    .put("name", "checkpointfile");
+            transmutationJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("sourceUrl", sourceUrl);
+            TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+            List<MetadataJsonNode<JsonNode>> first = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .take(2)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(first.get(1).metadata().json().path("streamPosition").longValue(),
+                    checkpoints.getStreamPosition("checkpointfile", sourceUrl).orElseThrow());
+
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(3, resumed.size());
+            Assertions.assertEquals("3", resumed.getFirst().data().path("id").asText());
+
+            // Unordered stages make the last position unsafe to resume from, so nothing is recorded
+            ObjectNode unorderedJson = JsonNodeFactory.instance.objectNode()
+                    .put("name", "checkpointunordered");
+            unorderedJson.putObject("source")
+                    .put("jar", "csv")
+                    .put("sourceUrl", sourceUrl);
+            unorderedJson.putArray("transmutes").addObject()
+                    .put("jar", "parallel")
+                    .put("ordered", false)
+                    .putArray("transmutes").addObject().put("jar", "noop");
+            transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(unorderedJson))).getFlux()
+                    .take(2)
+                    .blockLast(Duration.ofSeconds(10));
+            Assertions.assertTrue(checkpoints.getStreamPosition("checkpointunordered", sourceUrl).isEmpty());
+        }
+    }
+}
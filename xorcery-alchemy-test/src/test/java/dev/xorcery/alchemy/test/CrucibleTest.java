@@ -15,9 +15,15 @@
  */
 package dev.xorcery.alchemy.test;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
 import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
 import dev.xorcery.configuration.builder.ConfigurationBuilder;
 import dev.xorcery.junit.XorceryExtension;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -35,4 +41,17 @@ class CrucibleTest {
     public void testCrucible(TransmutationsRunner transmutationsRunner) throws Exception {
         transmutationsRunner.getDone().orTimeout(10, TimeUnit.SECONDS).join();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPlanCache(Transmutations transmutations) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "plancache");
+        transmutationJson.putObject("source")
+                .put("jar", "yaml")
+                .put("sourceUrl", "resource://foo.yaml");
+        transmutationJson.putArray("transmutes").addObject().put("jar", "log");
+
+        TransmutationConfiguration first = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getTransmutationConfiguration();
+        TransmutationConfiguration second = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson.deepCopy()))).getTransmutationConfiguration();
+        Assertions.assertSame(first, second);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+public class FusionTest {
+
+    @Test
+    public void testFusedTransmutes() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            assertTransmutation(crucible.getServiceLocator().getService(Transmutations.class));
+        }
+    }
+
+    @Test
+    public void testUnfusedTransmutes() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testFusionDisabled.yaml")
+                .build()))
+        {
+            assertTransmutation(crucible.getServiceLocator().getService(Transmutations.class));
+        }
+    }
+
+    private void assertTransmutation(Transmutations transmutations) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "fusion");
+        transmutationJson.putObject("source")
+                .put("jar", "yaml")
+                .put("sourceUrl", "resource://foo.yaml");
+        ArrayNode transmutes = transmutationJson.putArray("transmutes");
+        transmutes.addObject().put("jar", "noop");
+        transmutes.addObject().put("jar", "jslt").put("jslt", "if (.data.test >= 2) . else null");
+        transmutes.addObject().put("jar", "rename").putObject("data").put("value", "foo");
+        transmutes.addObject().put("jar", "log");
+
+        List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(1, items.size());
+        Assertions.assertEquals("bar2", items.get(0).data().path("value").asText());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+
+public class GenerateTest {
+
+    @Test
+    public void testGenerate() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(newGenerateTransmutation()));
+
+            List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(100, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                MetadataJsonNode<JsonNode> item = items.get(i);
+                Assertions.assertEquals(i, item.metadata().json().path("streamPosition").asLong());
+                Assertions.assertEquals(i, item.data().path("id").asLong());
+                Assertions.assertTrue(item.data().path("category").asText().length() == 8);
+                Assertions.assertTrue(item.data().path("amount").asLong() >= 10 && item.data().path("amount").asLong() <= 20);
+                Assertions.assertEquals(3, item.data().path("address").path("lines").size());
+            }
+            Assertions.assertTrue(items.stream().map(item -> item.data().path("category").asText()).distinct().count() <= 5);
+
+            // Same seed gives same items, also when resuming from a streamPosition
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), 49L))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(50, resumed.size());
+            Assertions.assertEquals(items.subList(50, 100).stream().map(MetadataJsonNode::data).toList(),
+                    resumed.stream().map(MetadataJsonNode::data).toList());
+        }
+    }
+
+    @Test
+    public void testGenerateRate() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "generaterate");
+            ObjectNode source = transmutationJson.putObject("source")
+                    .put("jar", "generate")
+                    .put("count", -1)
+                    .put("rate", 1_000_000);
+            source.putObject("fields").put("id", "sequence");
+
+            // High rates emit small batches more often, instead of buffering large batches per tick
+            long start = System.nanoTime();
+            List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .take(100_000)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            Assertions.assertEquals(100_000, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Assertions.assertEquals(i, items.get(i).metadata().json().path("streamPosition").asLong());
+            }
+            // The rate is an upper bound
+            Assertions.assertTrue(elapsed.toMillis() >= 80, elapsed::toString);
+        }
+    }
+
+    private ObjectNode newGenerateTransmutation() {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "generate");
+        ObjectNode source = transmutationJson.putObject("source")
+                .put("jar", "generate")
+                .put("count", 100)
+                .put("seed", 42);
+        ObjectNode fields = source.putObject("fields");
+        fields.put("id", "sequence");
+        fields.putObject("category").put("type", "string").put("length", 8).put("cardinality", 5);
+        fields.putObject("amount").put("type", "integer").put("min", 10).put("max", 20);
+        fields.put("flag", "boolean");
+        ObjectNode address = fields.putObject("address").putObject("fields");
+        address.put("street", "string");
+        address.putObject("lines").put("type", "array").put("size", 3);
+        return transmutationJson;
+    }
+}
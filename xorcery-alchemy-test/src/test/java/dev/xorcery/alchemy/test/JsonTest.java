@@ -15,11 +15,35 @@
  */
 package dev.xorcery.alchemy.test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
 import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
 import dev.xorcery.configuration.builder.ConfigurationBuilder;
 import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.util.context.Context;
 
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 public class JsonTest {
@@ -33,4 +57,246 @@ public class JsonTest {
             crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
         }
     }
+
+    @Test
+    public void testJsonResultBatches(@TempDir Path tempDir) throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Path unbatched = tempDir.resolve("unbatched.json");
+            Path batched = tempDir.resolve("batched.json");
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "jsonbatches");
+            ObjectNode fields = transmutationJson.putObject("source")
+                    .put("jar", "generate")
+                    .put("count", 25)
+                    .putObject("fields");
+            fields.put("id", "sequence");
+            fields.putObject("name").put("type", "string").put("length", 8);
+            ArrayNode transmutes = transmutationJson.putArray("transmutes");
+            transmutes.addObject()
+                    .put("jar", "json")
+                    .put("resultUrl", unbatched.toUri().toString())
+                    .putObject("batch").put("size", 1);
+            // Separates the batch transmutes, so each one has its own batch size
+            transmutes.addObject().put("jar", "noop");
+            transmutes.addObject()
+                    .put("jar", "json")
+                    .put("resultUrl", batched.toUri().toString())
+                    .putObject("batch").put("size", 7);
+
+            List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(25, items.size());
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            List<JsonNode> unbatchedDocuments;
+            try (MappingIterator<JsonNode> documents = objectMapper.readerFor(JsonNode.class).readValues(unbatched.toFile())) {
+                unbatchedDocuments = documents.readAll();
+            }
+            List<JsonNode> batchedDocuments;
+            try (MappingIterator<JsonNode> documents = objectMapper.readerFor(JsonNode.class).readValues(batched.toFile())) {
+                batchedDocuments = documents.readAll();
+            }
+            Assertions.assertEquals(25, unbatchedDocuments.size());
+            Assertions.assertEquals(unbatchedDocuments, batchedDocuments);
+            Assertions.assertEquals(Files.readString(unbatched), Files.readString(batched));
+        }
+    }
+
+    @Test
+    public void testJsonLinesFollow(@TempDir Path tempDir) throws Exception {
+        Path jsonl = tempDir.resolve("follow.jsonl");
+        Files.writeString(jsonl, "{\"id\":0}\n{\"id\":1}\n");
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "jsonfollow");
+            ObjectNode source = transmutationJson.putObject("source")
+                    .put("jar", "json")
+                    .put("lines", true)
+                    .put("sourceUrl", jsonl.toUri().toString());
+            TransmutationConfiguration linesConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson.deepCopy()));
+            source.put("follow", true).put("followDelay", "0.05s");
+            CompletableFuture<List<MetadataJsonNode<JsonNode>>> items = transmutations
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .take(5)
+                    .collectList()
+                    .toFuture();
+
+            Thread.sleep(200);
+            // Partial line is only read once it is complete
+            Files.writeString(jsonl, "{\"id\":2}\n\n{\"id\"", StandardOpenOption.APPEND);
+            Thread.sleep(200);
+            Files.writeString(jsonl, ":3}\n", StandardOpenOption.APPEND);
+            Thread.sleep(200);
+            Files.move(jsonl, tempDir.resolve("follow.jsonl.1"));
+            Files.writeString(jsonl, "{\"id\":4,\"name\":\"after rotation\"}\n");
+
+            List<MetadataJsonNode<JsonNode>> result = items.get(10, TimeUnit.SECONDS);
+            long lastPosition = -1;
+            for (int i = 0; i < result.size(); i++) {
+                Assertions.assertEquals(i, result.get(i).data().path("id").asInt());
+                long position = result.get(i).metadata().json().path("streamPosition").asLong();
+                if (i < 4)
+                    Assertions.assertTrue(position > lastPosition);
+                lastPosition = position;
+            }
+            // Positions are byte offsets in the file the line was read from
+            Assertions.assertEquals(0, result.get(4).metadata().json().path("streamPosition").asLong());
+
+            // Resume after the first line of the new file
+            Files.writeString(jsonl, "{\"id\":5}\n", StandardOpenOption.APPEND);
+            List<MetadataJsonNode<JsonNode>> resumedFollow = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), 0L))
+                    .take(1)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(List.of(5), resumedFollow.stream().map(item -> item.data().path("id").asInt()).toList());
+
+            // A position in the rotated file reads the new file from the start
+            String rotatedFile = result.get(3).metadata().json().path("streamFile").asText();
+            Assertions.assertFalse(rotatedFile.isEmpty());
+            Assertions.assertNotEquals(rotatedFile, result.get(4).metadata().json().path("streamFile").asText());
+            resumedFollow = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), result.get(3).metadata().json().path("streamPosition").asLong(),
+                            JarContext.streamFile.name(), rotatedFile))
+                    .take(2)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(List.of(4, 5), resumedFollow.stream().map(item -> item.data().path("id").asInt()).toList());
+
+            // Resume after the second line of the rotated file
+            Files.move(tempDir.resolve("follow.jsonl.1"), jsonl, StandardCopyOption.REPLACE_EXISTING);
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(linesConfiguration).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), result.get(1).metadata().json().path("streamPosition").asLong()))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            Assertions.assertEquals(List.of(2, 3), resumed.stream().map(item -> item.data().path("id").asInt()).toList());
+        }
+    }
+
+    @Test
+    public void testJsonLinesSource(@TempDir Path tempDir) throws Exception {
+        Path jsonl = tempDir.resolve("lines.jsonl");
+        int lines = 300_000;
+        List<Long> offsets = new ArrayList<>(lines);
+        try (BufferedWriter writer = Files.newBufferedWriter(jsonl, StandardCharsets.UTF_8)) {
+            long offset = 0;
+            for (int i = 0; i < lines; i++) {
+                String line = "{\"id\":" + i + ",\"name\":\"Name " + i + "\",\"tags\":[\"a\",\"b\"]}\n";
+                offsets.add(offset);
+                writer.write(line);
+                offset += line.length();
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "jsonlines");
+            transmutationJson.putObject("source")
+                    .put("jar", "json")
+                    .put("lines", true)
+                    .put("parallelism", 4)
+                    .put("sourceUrl", jsonl.toUri().toString());
+            TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+            List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(lines, items.size());
+            for (int i = 0; i < lines; i++) {
+                Assertions.assertEquals(i, items.get(i).data().path("id").asInt());
+                Assertions.assertEquals(offsets.get(i), items.get(i).metadata().json().path("streamPosition").asLong());
+            }
+
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), offsets.get(199_999)))
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(lines - 200_000, resumed.size());
+            Assertions.assertEquals(200_000, resumed.getFirst().data().path("id").asInt());
+        }
+    }
+
+    @Test
+    public void testJsonLinesParsers(@TempDir Path tempDir) throws Exception {
+        Path jsonl = tempDir.resolve("parsers.jsonl");
+        Files.writeString(jsonl, """
+                {"id":1,"long":12345678901,"double":1.5,"flag":true,"none":null,"text":"a \\"quoted\\" \\u00e6","nested":{"list":[1,"two",[3]]}}
+
+                [1,2,3]
+                {"id":2,"empty":{},"emptyList":[]}
+                """);
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            List<List<JsonNode>> results = new ArrayList<>();
+            for (String parser : List.of("jackson", "simdjson")) {
+                ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "jsonparsers");
+                transmutationJson.putObject("source")
+                        .put("jar", "json")
+                        .put("lines", true)
+                        .put("parser", parser)
+                        .put("sourceUrl", jsonl.toUri().toString());
+                results.add(transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                        .map(MetadataJsonNode::data)
+                        .collectList()
+                        .block(Duration.ofSeconds(10)));
+            }
+            Assertions.assertEquals(3, results.getFirst().size());
+            Assertions.assertEquals(results.get(0), results.get(1));
+        }
+    }
+
+    @Test
+    public void testJsonArraySimdjson(@TempDir Path tempDir) throws Exception {
+        Path json = tempDir.resolve("array.json");
+        Files.writeString(json, """
+                [
+                  {"id":1,"text":"brackets ] } [ { and \\"quotes\\", \\\\","nested":{"list":[1,"two",[3]]}},
+                  [1,2,3],
+                  "text", 12345678901, 1.5, true, null,
+                  {"id":2,"empty":{},"emptyList":[]}
+                ]
+                {"id":3}
+                """);
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "jsonarray");
+            transmutationJson.putObject("source")
+                    .put("jar", "json")
+                    .put("parser", "simdjson")
+                    .put("sourceUrl", json.toUri().toString());
+            List<JsonNode> result = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .map(MetadataJsonNode::data)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            // Elements of the top-level array, followed by the next document
+            List<JsonNode> expected = new ArrayList<>();
+            ObjectMapper objectMapper = new ObjectMapper();
+            List<String> documents = Files.readAllLines(json);
+            objectMapper.readTree(String.join("\n", documents.subList(0, documents.size() - 1))).forEach(expected::add);
+            expected.add(objectMapper.readTree(documents.getLast()));
+            Assertions.assertEquals(9, result.size());
+            Assertions.assertEquals("brackets ] } [ { and \"quotes\", \\", result.getFirst().path("text").asText());
+            Assertions.assertEquals(expected, result);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import dev.xorcery.alchemy.crucible.TransmutationMetrics;
+import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.ItemTransmute;
+import dev.xorcery.alchemy.jar.JarConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class MetricsTest {
+
+    @Test
+    public void testMetrics() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testMetrics.yaml")
+                .build()))
+        {
+            crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
+        }
+    }
+
+    @Test
+    public void testMetricValues() {
+        CollectingMetricReader reader = new CollectingMetricReader();
+        OpenTelemetry openTelemetry = OpenTelemetrySdk.builder()
+                .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(reader).build())
+                .build();
+        TransmutationMetrics metrics = new TransmutationMetrics(true, openTelemetry);
+        JarConfiguration jarConfiguration = new JarConfiguration(new Configuration(JsonNodeFactory.instance.objectNode().put("jar", "even")));
+        TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(JsonNodeFactory.instance.objectNode().put("name", "metrics")));
+
+        // Filters out half of the items
+        ItemTransmute even = (item, sink) ->
+        {
+            if (item.data().path("id").asLong() % 2 == 0)
+                sink.next(item);
+        };
+        ItemTransmute timedEven = metrics.instrumentItemTransmute(even, jarConfiguration, transmutationConfiguration);
+        Flux<MetadataJsonNode<JsonNode>> source = Flux.range(0, 100)
+                .map(i -> new MetadataJsonNode<>(new Metadata.Builder().build(), JsonNodeFactory.instance.objectNode().put("id", i)));
+        Long count = metrics.instrumentTransmute(source, flux -> flux.handle(timedEven), jarConfiguration, transmutationConfiguration)
+                .count()
+                .block(Duration.ofSeconds(10));
+        Assertions.assertEquals(50, count);
+
+        Map<String, MetricData> metricData = reader.registration.collectAllMetrics().stream()
+                .collect(Collectors.toMap(MetricData::getName, Function.identity()));
+        Assertions.assertEquals(100, metricData.get("alchemy.transmutation.items.in").getLongSumData().getPoints().iterator().next().getValue());
+        Assertions.assertEquals(50, metricData.get("alchemy.transmutation.items.out").getLongSumData().getPoints().iterator().next().getValue());
+        HistogramPointData latency = metricData.get("alchemy.transmutation.latency").getHistogramData().getPoints().iterator().next();
+        Assertions.assertEquals(100, latency.getCount());
+        Assertions.assertTrue(latency.getSum() > 0);
+    }
+
+    private static class CollectingMetricReader
+            implements MetricReader {
+
+        CollectionRegistration registration;
+
+        @Override
+        public void register(CollectionRegistration registration) {
+            this.registration = registration;
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+public class ParallelTest {
+
+    @Test
+    public void testParallel() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testParallel.yaml")
+                .build()))
+        {
+            crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
+        }
+    }
+
+    @Test
+    public void testParallelOrdered() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            List<Long> positions = transmutations.newTransmutation(newParallelTransmutation(JsonNodeFactory.instance.objectNode().put("jar", "noop"))).getFlux()
+                    .map(item -> item.metadata().json().path("streamPosition").asLong())
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(LongStream.range(0, 2000).boxed().toList(), positions);
+
+            // Each rail has its own stateful paging transmute, which drops the first item of the rail
+            List<MetadataJsonNode<JsonNode>> paged = transmutations.newTransmutation(newParallelTransmutation(JsonNodeFactory.instance.objectNode().put("jar", "paging").put("skip", 1))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(1996, paged.size());
+            for (int i = 1; i < paged.size(); i++) {
+                Assertions.assertTrue(paged.get(i - 1).metadata().json().path("streamPosition").asLong() < paged.get(i).metadata().json().path("streamPosition").asLong());
+            }
+            Assertions.assertFalse(paged.getFirst().metadata().json().has("parallelSequence"));
+
+            // The numbering used for ordering is not visible to nested transmutes
+            List<MetadataJsonNode<JsonNode>> transformed = transmutations.newTransmutation(newParallelTransmutation(JsonNodeFactory.instance.objectNode()
+                            .put("jar", "jslt")
+                            .put("jslt", "{\"metadata\": .metadata, \"data\": {\"id\": .data.id, \"sequence\": .metadata.parallelSequence}}"))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(LongStream.range(0, 2000).boxed().toList(), transformed.stream().map(item -> item.data().path("id").asLong()).toList());
+            for (MetadataJsonNode<JsonNode> item : transformed) {
+                Assertions.assertFalse(item.data().has("sequence"), item.data()::toString);
+            }
+        }
+    }
+
+    private TransmutationConfiguration newParallelTransmutation(ObjectNode nestedTransmute) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "parallelordered");
+        ObjectNode fields = transmutationJson.putObject("source")
+                .put("jar", "generate")
+                .put("count", 2000)
+                .putObject("fields");
+        fields.put("id", "sequence");
+        ObjectNode parallel = transmutationJson.putArray("transmutes").addObject()
+                .put("jar", "parallel")
+                .put("parallelism", 4)
+                .put("prefetch", 16);
+        parallel.putArray("transmutes").add(nestedTransmute);
+        return new TransmutationConfiguration(new Configuration(transmutationJson));
+    }
+
+    @Test
+    public void testPartition() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testPartition.yaml")
+                .build()))
+        {
+            crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
+        }
+    }
+
+    @Test
+    public void testPartitionOrder() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "partitionorder");
+            ObjectNode fields = transmutationJson.putObject("source")
+                    .put("jar", "generate")
+                    .put("count", 2000)
+                    .putObject("fields");
+            fields.put("id", "sequence");
+            ArrayNode transmutes = transmutationJson.putArray("transmutes");
+            // Interleaved keys, so consecutive items go to different partitions
+            transmutes.addObject().put("jar", "jslt").put("jslt", "{\"metadata\": .metadata, \"data\": {\"id\": .data.id, \"key\": .data.id % 7}}");
+            ObjectNode partition = transmutes.addObject()
+                    .put("jar", "partition")
+                    .put("key", "data.key")
+                    .put("partitions", 3)
+                    .put("prefetch", 16);
+            partition.putArray("transmutes").addObject().put("jar", "noop");
+
+            List<MetadataJsonNode<JsonNode>> items = crucible.getServiceLocator().getService(Transmutations.class)
+                    .newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+
+            Assertions.assertEquals(2000, items.size());
+            Map<Integer, List<Long>> idsPerKey = items.stream().collect(Collectors.groupingBy(item -> item.data().path("key").asInt(),
+                    Collectors.mapping(item -> item.data().path("id").asLong(), Collectors.toList())));
+            Assertions.assertEquals(7, idsPerKey.size());
+            idsPerKey.forEach((key, ids) ->
+                    Assertions.assertEquals(ids.stream().sorted().toList(), ids, "Order of key " + key));
+        }
+    }
+}
@@ -15,12 +15,33 @@
  */
 package dev.xorcery.alchemy.test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jerolba.carpet.CarpetWriter;
+import dev.xorcery.alchemy.crucible.Transmutations;
 import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
 import dev.xorcery.configuration.builder.ConfigurationBuilder;
 import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 //@Disabled("takes a long time to run")
 public class ParquetTest {
@@ -35,4 +56,248 @@ public class ParquetTest {
             crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(1000, TimeUnit.SECONDS).join();
         }
     }
+
+    public record Row(long id, String name, double amount, boolean active) {
+    }
+
+    @Test
+    public void testParquetProjectionAndFilter(@TempDir Path tempDir) throws Exception {
+        Path parquet = tempDir.resolve("rows.parquet");
+        try (OutputStream out = Files.newOutputStream(parquet);
+             CarpetWriter<Row> writer = new CarpetWriter<>(out, Row.class)) {
+            for (int i = 0; i < 10000; i++) {
+                writer.write(new Row(i, "Name " + i, i * 1.25D, i % 2 == 0));
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            List<JsonNode> all = read(transmutations, parquet, List.of(), List.of());
+            Assertions.assertEquals(10000, all.size());
+            Assertions.assertEquals("Name 42", all.get(42).path("name").asText());
+            Assertions.assertEquals(4, all.get(42).size());
+
+            List<JsonNode> projected = read(transmutations, parquet, List.of("id", "name"), List.of("id >= 9000", "active == true"));
+            Assertions.assertEquals(500, projected.size());
+            Assertions.assertEquals(9000, projected.getFirst().path("id").asLong());
+            Assertions.assertEquals(2, projected.getFirst().size());
+            Assertions.assertTrue(projected.getFirst().has("name"));
+
+            List<JsonNode> single = read(transmutations, parquet, List.of("amount"), List.of("name == \"Name 5\""));
+            Assertions.assertEquals(1, single.size());
+            Assertions.assertEquals(6.25D, single.getFirst().path("amount").asDouble());
+
+            Assertions.assertEquals(0, read(transmutations, parquet, List.of(), List.of("id > 10000")).size());
+        }
+    }
+
+    public record Tagged(long id, List<String> tags) {
+    }
+
+    @Test
+    public void testParquetListNullElements(@TempDir Path tempDir) throws Exception {
+        Path parquet = tempDir.resolve("tagged.parquet");
+        List<String> tags = new ArrayList<>();
+        tags.add("a");
+        tags.add(null);
+        tags.add("c");
+        try (OutputStream out = Files.newOutputStream(parquet);
+             CarpetWriter<Tagged> writer = new CarpetWriter<>(out, Tagged.class)) {
+            writer.write(new Tagged(1, tags));
+            writer.write(new Tagged(2, List.of()));
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            List<JsonNode> items = read(crucible.getServiceLocator().getService(Transmutations.class), parquet, List.of(), List.of());
+            Assertions.assertEquals(2, items.size());
+            // The null element keeps its position in the list
+            JsonNode first = items.getFirst().path("tags");
+            Assertions.assertEquals(3, first.size());
+            Assertions.assertEquals("a", first.get(0).asText());
+            Assertions.assertTrue(first.get(1).isNull());
+            Assertions.assertEquals("c", first.get(2).asText());
+            Assertions.assertEquals(0, items.get(1).path("tags").size());
+        }
+    }
+
+    @Test
+    public void testParquetRowGroups(@TempDir Path tempDir) throws Exception {
+        Path parquet = tempDir.resolve("rowgroups.parquet");
+        try (OutputStream out = Files.newOutputStream(parquet);
+             CarpetWriter<Row> writer = new CarpetWriter.Builder<>(out, Row.class)
+                     .withRowGroupSize(16 * 1024)
+                     .build()) {
+            for (int i = 0; i < 10000; i++) {
+                writer.write(new Row(i, "Name " + i, i * 1.25D, i % 2 == 0));
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            for (boolean ordered : List.of(true, false)) {
+                ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "parquetrowgroups");
+                transmutationJson.putObject("source")
+                        .put("jar", "parquet")
+                        .put("parallelism", 4)
+                        .put("ordered", ordered)
+                        .put("sourceUrl", parquet.toUri().toString());
+                TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+                List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                        .collectList()
+                        .block(Duration.ofSeconds(30));
+                Assertions.assertEquals(10000, items.size());
+                for (MetadataJsonNode<JsonNode> item : items) {
+                    Assertions.assertEquals(item.data().path("id").asLong(), item.metadata().json().path("streamPosition").asLong());
+                }
+                List<Long> ids = items.stream().map(item -> item.data().path("id").asLong()).toList();
+                if (ordered) {
+                    Assertions.assertEquals(LongStream.range(0, 10000).boxed().toList(), ids);
+                } else {
+                    Assertions.assertEquals(LongStream.range(0, 10000).boxed().toList(), ids.stream().sorted().toList());
+                }
+
+                Mono<List<Long>> resumed = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                        .contextWrite(Context.of(JarContext.streamPosition.name(), 4999L))
+                        .map(item -> item.data().path("id").asLong())
+                        .collectList();
+                if (ordered) {
+                    Assertions.assertEquals(LongStream.range(5000, 10000).boxed().toList(), resumed.block(Duration.ofSeconds(30)));
+                } else {
+                    // Rows before the position may not have been processed when reading unordered
+                    Assertions.assertThrows(RuntimeException.class, () -> resumed.block(Duration.ofSeconds(30)));
+                }
+            }
+
+            ObjectNode filteredJson = JsonNodeFactory.instance.objectNode().put("name", "parquetrowgroups");
+            filteredJson.putObject("source")
+                    .put("jar", "parquet")
+                    .put("sourceUrl", parquet.toUri().toString())
+                    .putArray("filter").add("active == true");
+            List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(filteredJson))).getFlux()
+                    .contextWrite(Context.of(JarContext.streamPosition.name(), 5000L))
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            Assertions.assertEquals(2499, resumed.size());
+            Assertions.assertEquals(5002, resumed.getFirst().metadata().json().path("streamPosition").asLong());
+        }
+    }
+
+    @Test
+    public void testParquetTransmute(@TempDir Path tempDir) throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            for (String compression : List.of("snappy", "zstd", "uncompressed")) {
+                for (boolean dictionary : List.of(true, false)) {
+                    Path parquet = tempDir.resolve("result-" + compression + "-" + dictionary + ".parquet");
+                    ObjectNode writeJson = JsonNodeFactory.instance.objectNode().put("name", "parquetwrite");
+                    ObjectNode fields = writeJson.putObject("source")
+                            .put("jar", "generate")
+                            .put("count", 10000)
+                            .putObject("fields");
+                    fields.put("id", "sequence");
+                    fields.putObject("name").put("type", "string").put("length", 12);
+                    fields.putObject("address").putObject("fields").putObject("lines").put("type", "array").put("size", 2);
+                    writeJson.putArray("transmutes").addObject()
+                            .put("jar", "parquet")
+                            .put("compression", compression)
+                            .put("dictionary", dictionary)
+                            .put("rowGroupSize", 64 * 1024)
+                            .put("resultUrl", parquet.toUri().toString())
+                            .putObject("batch").put("size", 100);
+                    List<MetadataJsonNode<JsonNode>> written = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(writeJson))).getFlux()
+                            .collectList()
+                            .block(Duration.ofSeconds(30));
+                    Assertions.assertEquals(10000, written.size());
+
+                    // Compared as JSON text, as integers are read back as longs
+                    List<String> read = read(transmutations, parquet, List.of(), List.of()).stream().map(JsonNode::toString).toList();
+                    Assertions.assertEquals(written.stream().map(item -> item.data().toString()).toList(), read, compression + " " + dictionary);
+                }
+            }
+
+            Path explicit = tempDir.resolve("explicit.parquet");
+            ObjectNode writeJson = JsonNodeFactory.instance.objectNode().put("name", "parquetwrite");
+            ObjectNode fields = writeJson.putObject("source")
+                    .put("jar", "generate")
+                    .put("count", 1000)
+                    .putObject("fields");
+            fields.put("id", "sequence");
+            fields.putObject("name").put("type", "string").put("length", 12);
+            writeJson.putArray("transmutes").addObject()
+                    .put("jar", "parquet")
+                    .put("schema", "message row { required int32 id; optional binary name (STRING); optional binary missing (STRING); }")
+                    .put("resultUrl", explicit.toUri().toString());
+            transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(writeJson))).getFlux()
+                    .blockLast(Duration.ofSeconds(30));
+
+            List<JsonNode> read = read(transmutations, explicit, List.of(), List.of("id >= 500"));
+            Assertions.assertEquals(500, read.size());
+            Assertions.assertTrue(read.getFirst().path("id").isInt());
+            Assertions.assertEquals(500, read.getFirst().path("id").intValue());
+            Assertions.assertFalse(read.getFirst().has("missing"));
+        }
+    }
+
+    @Test
+    public void testParquetTransmuteInferredSchema(@TempDir Path tempDir) throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            // Fields first seen after the inferred rows are not written
+            Path extra = tempDir.resolve("extra.parquet");
+            write(transmutations, tempDir.resolve("extra.jsonl"), "{\"id\":1}\n{\"id\":2,\"extra\":\"x\"}\n", extra)
+                    .blockLast(Duration.ofSeconds(30));
+            List<JsonNode> read = read(transmutations, extra, List.of(), List.of());
+            Assertions.assertEquals(List.of("{\"id\":1}", "{\"id\":2}"), read.stream().map(JsonNode::toString).toList());
+
+            // Fractional values in an inferred integer column fail instead of being truncated
+            Assertions.assertThrows(RuntimeException.class, () ->
+                    write(transmutations, tempDir.resolve("fraction.jsonl"), "{\"id\":1}\n{\"id\":1.5}\n", tempDir.resolve("fraction.parquet"))
+                            .blockLast(Duration.ofSeconds(30)));
+        }
+    }
+
+    private Flux<MetadataJsonNode<JsonNode>> write(Transmutations transmutations, Path jsonl, String lines, Path parquet) throws Exception {
+        Files.writeString(jsonl, lines);
+        ObjectNode writeJson = JsonNodeFactory.instance.objectNode().put("name", "parquetwrite");
+        writeJson.putObject("source")
+                .put("jar", "json")
+                .put("lines", true)
+                .put("sourceUrl", jsonl.toUri().toString());
+        writeJson.putArray("transmutes").addObject()
+                .put("jar", "parquet")
+                .put("inferRows", 1)
+                .put("resultUrl", parquet.toUri().toString());
+        return transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(writeJson))).getFlux();
+    }
+
+    private List<JsonNode> read(Transmutations transmutations, Path parquet, List<String> columns, List<String> filters) {
+        ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "parquetread");
+        ObjectNode source = transmutationJson.putObject("source")
+                .put("jar", "parquet")
+                .put("sourceUrl", parquet.toUri().toString());
+        columns.forEach(source.putArray("columns")::add);
+        filters.forEach(source.putArray("filter")::add);
+        return transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))).getFlux()
+                .map(MetadataJsonNode::data)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
 }
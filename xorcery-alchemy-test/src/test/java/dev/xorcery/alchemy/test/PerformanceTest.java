@@ -0,0 +1,351 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jerolba.carpet.CarpetWriter;
+import dev.xorcery.alchemy.crucible.Crucible;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.jar.Transmutation;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput regression suite. Generates large CSV, JSON, YAML and Parquet inputs, runs recipes per format through
+ * the crucible, covering both the default and the fast paths of the sources as well as the batched writers, and records
+ * items per second, allocated bytes per item and peak heap. Results are written to target/performance-results.json,
+ * and compared with src/test/resources/performance-baseline.json.
+ * <p>
+ * Only runs in the performance profile. Baselines depend on the machine, so a case without a baseline entry is
+ * skipped after it has been measured. Record the baseline on the reference machine with
+ * -Dperformance.updateBaseline=true, which stores the results as the new baseline.
+ */
+@Tag("performance")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PerformanceTest {
+
+    private static final Logger logger = LogManager.getLogger(PerformanceTest.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final long BYTES = Long.getLong("performance.megabytes", 2048) * 1024 * 1024;
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("performance.tolerance", "0.2"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("performance.updateBaseline");
+    private static final Path BASELINE = Path.of(System.getProperty("basedir", "."), "src/test/resources/performance-baseline.json");
+    private static final Path RESULTS = Path.of(System.getProperty("basedir", "."), "target/performance-results.json");
+
+    public record Row(long id, String name, String email, double amount, boolean active) {
+    }
+
+    private static Path fixtures;
+    private static long csvRows;
+    private static long jsonRows;
+    private static long parquetRows;
+    private static ObjectNode baseline;
+    private static ObjectNode results;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        fixtures = Files.createTempDirectory("alchemy-performance");
+        try (InputStream in = PerformanceTest.class.getResourceAsStream("/performance-baseline.json")) {
+            baseline = in == null ? JsonNodeFactory.instance.objectNode() : (ObjectNode) objectMapper.readTree(in);
+        }
+        results = JsonNodeFactory.instance.objectNode();
+    }
+
+    @AfterAll
+    public static void report() throws IOException {
+        Files.createDirectories(RESULTS.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(RESULTS.toFile(), results);
+        if (UPDATE_BASELINE) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(BASELINE.toFile(), results);
+            logger.info("Updated performance baseline {}", BASELINE);
+        }
+        try (var files = Files.list(fixtures)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(fixtures);
+    }
+
+    @Test
+    @Order(1)
+    public void csv() throws Exception {
+        ObjectNode transmutation = newTransmutation("csv", csvFixture());
+        ((ObjectNode) transmutation.get("source")).put("headers", true);
+        ArrayNode transmutes = transmutation.putArray("transmutes");
+        transmutes.addObject().put("jar", "jslt").put("jslt", "{\"metadata\": .metadata, \"data\": {\"key\": .data.id, \"mail\": .data.email}}");
+        measure("csv", csvRows, transmutation);
+    }
+
+    @Test
+    @Order(2)
+    public void csvNative() throws Exception {
+        ObjectNode transmutation = newTransmutation("csv", csvFixture());
+        ((ObjectNode) transmutation.get("source")).put("headers", true).put("parser", "native");
+        transmutation.putArray("transmutes").addObject().put("jar", "noop");
+        measure("csv-native", csvRows, transmutation);
+    }
+
+    @Test
+    @Order(3)
+    public void json() throws Exception {
+        ObjectNode transmutation = newTransmutation("json", jsonFixture());
+        ArrayNode transmutes = transmutation.putArray("transmutes");
+        transmutes.addObject().put("jar", "flatten");
+        measure("json", jsonRows, transmutation);
+    }
+
+    @Test
+    @Order(4)
+    public void jsonLines() throws Exception {
+        ObjectNode transmutation = newTransmutation("json", jsonFixture());
+        ((ObjectNode) transmutation.get("source")).put("lines", true).put("parser", "jackson");
+        transmutation.putArray("transmutes").addObject().put("jar", "noop");
+        measure("json-lines", jsonRows, transmutation);
+    }
+
+    @Test
+    @Order(5)
+    public void jsonLinesSimdjson() throws Exception {
+        ObjectNode transmutation = newTransmutation("json", jsonFixture());
+        ((ObjectNode) transmutation.get("source")).put("lines", true).put("parser", "simdjson");
+        transmutation.putArray("transmutes").addObject().put("jar", "noop");
+        measure("json-lines-simdjson", jsonRows, transmutation);
+    }
+
+    @Test
+    @Order(6)
+    public void yaml() throws Exception {
+        Path yaml = fixtures.resolve("performance.yaml");
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(yaml, StandardCharsets.UTF_8)) {
+            while (Files.size(yaml) < BYTES) {
+                for (int i = 0; i < 100_000; i++, rows++) {
+                    writer.write("---\nid: " + rows + "\nname: \"Name " + rows + "\"\nemail: \"user" + rows + "@example.com\"\namount: " + (rows * 1.25D) + "\n");
+                }
+                writer.flush();
+            }
+        }
+        ObjectNode transmutation = newTransmutation("yaml", yaml);
+        ArrayNode transmutes = transmutation.putArray("transmutes");
+        transmutes.addObject().put("jar", "rename").putObject("data").put("key", "id").put("mail", "email");
+        measure("yaml", rows, transmutation);
+    }
+
+    @Test
+    @Order(7)
+    public void parquet() throws Exception {
+        ObjectNode transmutation = newTransmutation("parquet", parquetFixture());
+        transmutation.putArray("transmutes").addObject().put("jar", "noop");
+        measure("parquet", parquetRows, transmutation);
+    }
+
+    @Test
+    @Order(8)
+    public void parquetUnordered() throws Exception {
+        ObjectNode transmutation = newTransmutation("parquet", parquetFixture());
+        ((ObjectNode) transmutation.get("source")).put("ordered", false);
+        transmutation.putArray("transmutes").addObject().put("jar", "noop");
+        measure("parquet-unordered", parquetRows, transmutation);
+    }
+
+    @Test
+    @Order(9)
+    public void csvWriter() throws Exception {
+        measureWriter("csv", ".csv");
+    }
+
+    @Test
+    @Order(10)
+    public void jsonWriter() throws Exception {
+        measureWriter("json", ".json");
+    }
+
+    @Test
+    @Order(11)
+    public void yamlWriter() throws Exception {
+        measureWriter("yaml", ".yaml");
+    }
+
+    @Test
+    @Order(12)
+    public void parquetWriter() throws Exception {
+        measureWriter("parquet", ".parquet");
+    }
+
+    /**
+     * Batched writer, fed by the native CSV parser so the writer dominates the measurement.
+     */
+    private void measureWriter(String jar, String extension) throws Exception {
+        ObjectNode transmutation = newTransmutation("csv", csvFixture());
+        transmutation.put("name", "performance-" + jar + "-writer");
+        ((ObjectNode) transmutation.get("source")).put("headers", true).put("parser", "native");
+        Path result = fixtures.resolve("result" + extension);
+        transmutation.putArray("transmutes").addObject()
+                .put("jar", jar)
+                .put("resultUrl", result.toUri().toString());
+        try {
+            measure(jar + "-writer", csvRows, transmutation);
+        } finally {
+            Files.deleteIfExists(result);
+        }
+    }
+
+    private static Path csvFixture() throws IOException {
+        Path csv = fixtures.resolve("performance.csv");
+        if (csvRows > 0)
+            return csv;
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name,email,amount,active\n");
+            while (Files.size(csv) < BYTES) {
+                for (int i = 0; i < 100_000; i++, rows++) {
+                    writer.write(rows + ",Name " + rows + ",user" + rows + "@example.com," + (rows * 1.25D) + "," + (rows % 2 == 0) + "\n");
+                }
+                writer.flush();
+            }
+        }
+        csvRows = rows;
+        return csv;
+    }
+
+    /**
+     * JSON Lines, which is also read as a sequence of documents without lines: true.
+     */
+    private static Path jsonFixture() throws IOException {
+        Path json = fixtures.resolve("performance.json");
+        if (jsonRows > 0)
+            return json;
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+            while (Files.size(json) < BYTES) {
+                for (int i = 0; i < 100_000; i++, rows++) {
+                    writer.write("{\"id\":" + rows + ",\"name\":\"Name " + rows + "\",\"email\":\"user" + rows + "@example.com\",\"amount\":" + (rows * 1.25D) + ",\"address\":{\"zip\":" + (rows % 10000) + "}}\n");
+                }
+                writer.flush();
+            }
+        }
+        jsonRows = rows;
+        return json;
+    }
+
+    private static Path parquetFixture() throws IOException {
+        Path parquet = fixtures.resolve("performance.parquet");
+        if (parquetRows > 0)
+            return parquet;
+        // Parquet compresses well, so use the row count of an equally sized CSV file
+        long rows = BYTES / 64;
+        try (OutputStream out = Files.newOutputStream(parquet);
+             CarpetWriter<Row> writer = new CarpetWriter<>(out, Row.class)) {
+            for (long i = 0; i < rows; i++) {
+                writer.write(new Row(i, "Name " + i, "user" + i + "@example.com", i * 1.25D, i % 2 == 0));
+            }
+        }
+        parquetRows = rows;
+        return parquet;
+    }
+
+    private ObjectNode newTransmutation(String jar, Path source) {
+        ObjectNode transmutation = JsonNodeFactory.instance.objectNode().put("name", "performance-" + jar);
+        transmutation.putObject("source")
+                .put("jar", jar)
+                .put("sourceUrl", source.toUri().toString());
+        return transmutation;
+    }
+
+    private void measure(String name, long expectedItems, ObjectNode transmutationJson) throws Exception {
+        try (Xorcery xorcery = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build())) {
+            Transmutations transmutations = xorcery.getServiceLocator().getService(Transmutations.class);
+            Crucible crucible = xorcery.getServiceLocator().getService(Crucible.class);
+            TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            LongAdder items = new LongAdder();
+            long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Transmutation transmutation = transmutations.newTransmutation(transmutationConfiguration);
+            crucible.addTransmutation(new Transmutation(transmutationConfiguration, transmutation.getFlux().doOnNext(item -> items.increment())))
+                    .orTimeout(1, TimeUnit.HOURS)
+                    .join();
+            double seconds = (System.nanoTime() - start) / 1_000_000_000D;
+            long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+            long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+            Assertions.assertEquals(expectedItems, items.sum());
+            ObjectNode result = results.putObject(name)
+                    .put("items", items.sum())
+                    .put("itemsPerSecond", Math.round(items.sum() / seconds))
+                    .put("allocatedBytesPerItem", Math.round((double) allocated / items.sum()))
+                    .put("peakHeapBytes", peakHeap);
+            logger.info("Performance {}: {}", name, result);
+
+            if (!UPDATE_BASELINE) {
+                Assumptions.assumeTrue(baseline.has(name),
+                        () -> name + " has no performance baseline, run with -Dperformance.updateBaseline=true to record it");
+                JsonNode expected = baseline.get(name);
+                assertNotBelow(name, "itemsPerSecond", result, expected);
+                assertNotAbove(name, "allocatedBytesPerItem", result, expected);
+                assertNotAbove(name, "peakHeapBytes", result, expected);
+            }
+        }
+    }
+
+    private void assertNotBelow(String name, String metric, JsonNode result, JsonNode expected) {
+        Assertions.assertTrue(expected.has(metric), () -> name + " has no performance baseline for " + metric);
+        long limit = Math.round(expected.path(metric).asLong() * (1 - TOLERANCE));
+        Assertions.assertTrue(result.path(metric).asLong() >= limit,
+                () -> name + " " + metric + " regressed: " + result.path(metric).asLong() + " < " + limit);
+    }
+
+    private void assertNotAbove(String name, String metric, JsonNode result, JsonNode expected) {
+        Assertions.assertTrue(expected.has(metric), () -> name + " has no performance baseline for " + metric);
+        long limit = Math.round(expected.path(metric).asLong() * (1 + TOLERANCE));
+        Assertions.assertTrue(result.path(metric).asLong() <= limit,
+                () -> name + " " + metric + " regressed: " + result.path(metric).asLong() + " > " + limit);
+    }
+}
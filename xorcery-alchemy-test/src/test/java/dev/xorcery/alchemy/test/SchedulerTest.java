@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2025 eXOReaction AS (rickard@exoreaction.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.xorcery.alchemy.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
+import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.SchedulerConfiguration;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
+import dev.xorcery.configuration.builder.ConfigurationBuilder;
+import dev.xorcery.core.Xorcery;
+import dev.xorcery.metadata.Metadata;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class SchedulerTest {
+
+    @Test
+    public void testScheduler() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .addResource("testScheduler.yaml")
+                .build()))
+        {
+            crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
+        }
+    }
+
+    @Test
+    public void testSchedulerKinds() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            Run immediate = run(transmutations, scheduler("immediate"));
+            Assertions.assertEquals(Set.of(Thread.currentThread().getName()), immediate.threads());
+            // Without publishOn the source sees the unbounded demand of block
+            Assertions.assertEquals(Long.MAX_VALUE, immediate.requests().getFirst());
+
+            Run parallel = run(transmutations, scheduler("parallel"));
+            Assertions.assertTrue(parallel.threads().stream().allMatch(name -> name.startsWith("parallel-")), parallel.threads().toString());
+            Assertions.assertEquals(SchedulerConfiguration.DEFAULT_PREFETCH, parallel.requests().getFirst());
+
+            Run boundedElastic = run(transmutations, scheduler("boundedElastic"));
+            Assertions.assertTrue(boundedElastic.threads().stream().allMatch(name -> name.startsWith("boundedElastic-")), boundedElastic.threads().toString());
+            Assertions.assertEquals(SchedulerConfiguration.DEFAULT_PREFETCH, boundedElastic.requests().getFirst());
+
+            // The default is boundedElastic
+            Run defaults = run(transmutations, new SchedulerConfiguration(new Configuration(JsonNodeFactory.instance.objectNode())));
+            Assertions.assertTrue(defaults.threads().stream().allMatch(name -> name.startsWith("boundedElastic-")), defaults.threads().toString());
+
+            Run virtual = run(transmutations, scheduler("virtual"));
+            Assertions.assertTrue(virtual.virtual(), "virtual threads");
+        }
+    }
+
+    @Test
+    public void testSchedulerPrefetchAndLowTide() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+
+            // publishOn requests prefetch and then replenishes with 75% of it
+            ObjectNode prefetchJson = JsonNodeFactory.instance.objectNode().put("kind", "parallel").put("prefetch", 2048);
+            Run prefetch = run(transmutations, new SchedulerConfiguration(new Configuration(prefetchJson)));
+            Assertions.assertEquals(2048L, prefetch.requests().getFirst());
+            Assertions.assertEquals(1536L, prefetch.requests().get(1));
+
+            // A low tide replenishes with that many items at a time
+            ObjectNode lowTideJson = JsonNodeFactory.instance.objectNode().put("kind", "virtual").put("prefetch", 4).put("lowTide", 1);
+            Run lowTide = run(transmutations, new SchedulerConfiguration(new Configuration(lowTideJson)));
+            Assertions.assertTrue(lowTide.virtual(), "virtual threads");
+            Assertions.assertEquals(4L, lowTide.requests().getFirst());
+            Assertions.assertTrue(lowTide.requests().stream().skip(1).allMatch(request -> request == 1L), lowTide.requests().toString());
+
+            // Prefetch bounds the demand of an immediate scheduler
+            ObjectNode immediateJson = JsonNodeFactory.instance.objectNode().put("kind", "immediate").put("prefetch", 16);
+            Run immediate = run(transmutations, new SchedulerConfiguration(new Configuration(immediateJson)));
+            Assertions.assertEquals(16L, immediate.requests().getFirst());
+            Assertions.assertTrue(immediate.requests().stream().allMatch(request -> request <= 16L), immediate.requests().toString());
+        }
+    }
+
+    @Test
+    public void testSchedulerInvalidKind() throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "invalid");
+            transmutationJson.putObject("scheduler").put("kind", "elastic");
+            transmutationJson.putObject("source")
+                    .put("jar", "yaml")
+                    .put("sourceUrl", "resource://yamlsource.yaml");
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () ->
+                    transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(transmutationJson))));
+            Assertions.assertTrue(exception.getMessage().contains("elastic"), exception.getMessage());
+        }
+    }
+
+    private static SchedulerConfiguration scheduler(String kind) {
+        return new SchedulerConfiguration(new Configuration(JsonNodeFactory.instance.objectNode().put("kind", kind)));
+    }
+
+    private record Run(Set<String> threads, boolean virtual, List<Long> requests) {
+    }
+
+    private static Run run(Transmutations transmutations, SchedulerConfiguration schedulerConfiguration) {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        Flux<MetadataJsonNode<JsonNode>> source = Flux.range(0, 5000)
+                .map(i -> new MetadataJsonNode<JsonNode>(new Metadata.Builder().build(), JsonNodeFactory.instance.objectNode().put("id", i)))
+                .doOnRequest(requests::add)
+                // Sources are not fused with the scheduler, so that requests are made as with the file sources
+                .hide();
+        List<MetadataJsonNode<JsonNode>> items = transmutations.applyScheduler(source, schedulerConfiguration)
+                .doOnNext(item ->
+                {
+                    threads.add(Thread.currentThread().getName());
+                    virtual.add(Thread.currentThread().isVirtual());
+                })
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        Assertions.assertEquals(5000, items.size());
+        return new Run(threads, virtual.equals(Set.of(true)), requests);
+    }
+}
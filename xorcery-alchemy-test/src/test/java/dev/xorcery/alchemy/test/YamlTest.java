@@ -15,11 +15,28 @@
  */
 package dev.xorcery.alchemy.test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.xorcery.alchemy.crucible.Transmutations;
 import dev.xorcery.alchemy.crucible.TransmutationsRunner;
+import dev.xorcery.alchemy.jar.JarContext;
+import dev.xorcery.alchemy.jar.TransmutationConfiguration;
+import dev.xorcery.configuration.Configuration;
 import dev.xorcery.configuration.builder.ConfigurationBuilder;
 import dev.xorcery.core.Xorcery;
+import dev.xorcery.reactivestreams.api.MetadataJsonNode;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.util.context.Context;
 
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class YamlTest {
@@ -34,4 +51,93 @@ public class YamlTest {
             crucible.getServiceLocator().getService(TransmutationsRunner.class).getDone().orTimeout(10, TimeUnit.SECONDS).join();
         }
     }
+
+    @Test
+    public void testYamlResume(@TempDir Path tempDir) throws Exception {
+        Path documents = tempDir.resolve("documents.yaml");
+        Path sequence = tempDir.resolve("sequence.yaml");
+        try (BufferedWriter documentsWriter = Files.newBufferedWriter(documents, StandardCharsets.UTF_8);
+             BufferedWriter sequenceWriter = Files.newBufferedWriter(sequence, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 1000; i++) {
+                documentsWriter.write("---\nid: " + i + "\nname: \"Name " + i + "\"\ntags:\n  - a\n  - b\n");
+                sequenceWriter.write("- id: " + i + "\n  name: \"Name " + i + "\"\n");
+            }
+        }
+
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            for (Path file : List.of(documents, sequence)) {
+                for (String position : List.of("index", "line")) {
+                    ObjectNode transmutationJson = JsonNodeFactory.instance.objectNode().put("name", "yamlresume");
+                    transmutationJson.putObject("source")
+                            .put("jar", "yaml")
+                            .put("position", position)
+                            .put("sourceUrl", file.toUri().toString());
+                    TransmutationConfiguration transmutationConfiguration = new TransmutationConfiguration(new Configuration(transmutationJson));
+
+                    List<MetadataJsonNode<JsonNode>> items = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                            .collectList()
+                            .block(Duration.ofSeconds(10));
+                    Assertions.assertEquals(1000, items.size(), file + " " + position);
+
+                    List<MetadataJsonNode<JsonNode>> resumed = transmutations.newTransmutation(transmutationConfiguration).getFlux()
+                            .contextWrite(Context.of(JarContext.streamPosition.name(), items.get(599).metadata().json().path("streamPosition").asLong()))
+                            .collectList()
+                            .block(Duration.ofSeconds(10));
+                    Assertions.assertEquals(400, resumed.size(), file + " " + position);
+                    Assertions.assertEquals(items.subList(600, 1000).stream().map(MetadataJsonNode::data).toList(),
+                            resumed.stream().map(MetadataJsonNode::data).toList(), file + " " + position);
+                    Assertions.assertEquals(items.get(600).metadata().json().path("streamPosition"),
+                            resumed.getFirst().metadata().json().path("streamPosition"), file + " " + position);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testYamlTransmute(@TempDir Path tempDir) throws Exception {
+        try (Xorcery crucible = new Xorcery(new ConfigurationBuilder()
+                .addTestDefaults()
+                .build()))
+        {
+            Transmutations transmutations = crucible.getServiceLocator().getService(Transmutations.class);
+            for (boolean dataOnly : List.of(true, false)) {
+                for (boolean asyncWrite : List.of(true, false)) {
+                    Path yaml = tempDir.resolve("result-" + dataOnly + "-" + asyncWrite + ".yaml");
+                    ObjectNode writeJson = JsonNodeFactory.instance.objectNode().put("name", "yamlwrite");
+                    ObjectNode fields = writeJson.putObject("source")
+                            .put("jar", "generate")
+                            .put("count", 1000)
+                            .putObject("fields");
+                    fields.put("id", "sequence");
+                    fields.putObject("name").put("type", "string").put("length", 12);
+                    fields.putObject("address").putObject("fields").putObject("lines").put("type", "array").put("size", 2);
+                    writeJson.putArray("transmutes").addObject()
+                            .put("jar", "yaml")
+                            .put("dataOnly", dataOnly)
+                            .put("asyncWrite", asyncWrite)
+                            .put("resultUrl", yaml.toUri().toString())
+                            .putObject("batch").put("size", 100);
+                    List<MetadataJsonNode<JsonNode>> written = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(writeJson))).getFlux()
+                            .collectList()
+                            .block(Duration.ofSeconds(30));
+                    Assertions.assertEquals(1000, written.size());
+
+                    ObjectNode readJson = JsonNodeFactory.instance.objectNode().put("name", "yamlread");
+                    readJson.putObject("source")
+                            .put("jar", "yaml")
+                            .put("sourceUrl", yaml.toUri().toString());
+                    // Compared as JSON text, as numbers are read back as the smallest fitting node type
+                    List<String> read = transmutations.newTransmutation(new TransmutationConfiguration(new Configuration(readJson))).getFlux()
+                            .map(item -> (dataOnly ? item.data() : item.data().path("data")).toString())
+                            .collectList()
+                            .block(Duration.ofSeconds(30));
+                    Assertions.assertEquals(written.stream().map(item -> item.data().toString()).toList(), read, dataOnly + " " + asyncWrite);
+                }
+            }
+        }
+    }
 }